@@ -2,9 +2,23 @@ package com.github.aoklyunin.jCollections;
 
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.math.BigInteger;
-import java.util.function.Consumer;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.*;
 
 /**
  * Класс асинхронных методов
@@ -12,66 +26,1108 @@ import java.util.function.Consumer;
 public class Async {
 
     /**
-     * Параллельный перебор числа i
+     * Во сколько раз отрезков, на которые делится цикл, больше, чем потоков пула:
+     * мелкие отрезки выравнивают нагрузку, если одни шаги цикла дольше других
+     */
+    private static final int CHUNKS_PER_THREAD = 8;
+    /**
+     * Через сколько шагов внутри неделимого отрезка проверяется флаг отмены и сообщается прогресс,
+     * степень двойки
+     */
+    private static final int STEP_CHECK_INTERVAL = 1024;
+    /**
+     * Наибольшее кол-во одновременно выполняемых отрезков блокирующего цикла по умолчанию
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 256;
+
+    /**
+     * Параллельный перебор числа i в общем пуле ForkJoinPool
      *
      * @param n        кол-во шагов цикла
      * @param loopStep консумер, к отором описано, что делать с каждым значение счётчика цикла
      */
     public static void parallelForEach(int n, @NotNull Consumer<Integer> loopStep) {
-        int threadCnt = Runtime.getRuntime().availableProcessors();
-        Thread[] threads = new Thread[threadCnt];
-        // заполняем массив предрассчитанных значений
-        for (int i = 0; i < threadCnt; i++) {
-            int step = n / threadCnt;
-            int finalI = i;
-            threads[i] = new Thread(() -> {
-                for (int j = step * finalI; j < (finalI == threadCnt - 1 ? n : step * (finalI + 1)); j++)
-                    loopStep.accept(j);
-            });
+        parallelForEach(n, loopStep, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельный перебор числа i в отдельном пуле с заданным кол-вом потоков
+     *
+     * @param n           кол-во шагов цикла
+     * @param loopStep    консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param parallelism кол-во потоков
+     */
+    public static void parallelForEach(int n, @NotNull Consumer<Integer> loopStep, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            parallelForEach(n, loopStep, pool);
+        } finally {
+            pool.shutdown();
         }
-        // выполняем потоки
-        for (Thread thread : threads)
-            thread.start();
-        for (Thread thread : threads)
-            try {
-                thread.join();
-                //   thread2.join();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
     }
 
     /**
-     * Параллельный перебор числа i
+     * Параллельный перебор числа i в общем пуле ForkJoinPool с отслеживанием прогресса
+     *
+     * @param n        кол-во шагов цикла
+     * @param loopStep консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param progress прогресс цикла
+     */
+    public static void parallelForEach(int n, @NotNull Consumer<Integer> loopStep, @NotNull Progress progress) {
+        parallelForEachLong(n, i -> loopStep.accept((int) i), Objects.requireNonNull(progress));
+    }
+
+    /**
+     * Параллельный перебор числа i в заданном пуле. Цикл рекурсивно делится пополам,
+     * свободные потоки забирают себе половины у занятых. Исключение шага цикла
+     * пробрасывается вызывающему
+     *
+     * @param n        кол-во шагов цикла
+     * @param loopStep консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param pool     пул потоков
+     */
+    public static void parallelForEach(int n, @NotNull Consumer<Integer> loopStep, @NotNull ForkJoinPool pool) {
+        if (n <= 0)
+            return;
+        int chunkSize = Math.max(1, n / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        invoke(pool, new IntLoopTask(0, n, chunkSize, loopStep));
+    }
+
+    /**
+     * Параллельный перебор числа i в общем пуле ForkJoinPool
+     *
+     * @param n        кол-во шагов цикла
+     * @param loopStep консумер, к отором описано, что делать с каждым значение счётчика цикла
+     */
+    public static void parallelForEachLong(long n, @NotNull LongConsumer loopStep) {
+        parallelForEachLong(n, loopStep, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельный перебор числа i в отдельном пуле с заданным кол-вом потоков
+     *
+     * @param n           кол-во шагов цикла
+     * @param loopStep    консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param parallelism кол-во потоков
+     */
+    public static void parallelForEachLong(long n, @NotNull LongConsumer loopStep, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            parallelForEachLong(n, loopStep, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Параллельный перебор числа i в заданном пуле. Цикл рекурсивно делится пополам,
+     * свободные потоки забирают себе половины у занятых. Исключение шага цикла
+     * пробрасывается вызывающему
+     *
+     * @param n        кол-во шагов цикла
+     * @param loopStep консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param pool     пул потоков
+     */
+    public static void parallelForEachLong(long n, @NotNull LongConsumer loopStep, @NotNull ForkJoinPool pool) {
+        if (n <= 0)
+            return;
+        invoke(pool, new LongLoopTask(0, n, getChunkSize(n, pool), loopStep));
+    }
+
+    /**
+     * Отменяемый параллельный перебор числа i в общем пуле ForkJoinPool
+     *
+     * @param n                 кол-во шагов цикла
+     * @param loopStep          консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param cancellationToken флаг отмены
+     */
+    public static void parallelForEachLong(
+            long n, @NotNull LongConsumer loopStep, @NotNull CancellationToken cancellationToken
+    ) {
+        parallelForEachLong(n, loopStep, cancellationToken, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Отменяемый параллельный перебор числа i в заданном пуле. Флаг отмены проверяется
+     * перед каждым отрезком и каждые STEP_CHECK_INTERVAL шагов внутри него,
+     * после отмены новые шаги не начинаются
+     *
+     * @param n                 кол-во шагов цикла
+     * @param loopStep          консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param cancellationToken флаг отмены
+     * @param pool              пул потоков
+     */
+    public static void parallelForEachLong(
+            long n, @NotNull LongConsumer loopStep, @NotNull CancellationToken cancellationToken,
+            @NotNull ForkJoinPool pool
+    ) {
+        parallelForEachLong(n, loopStep, Objects.requireNonNull(cancellationToken), null, pool);
+    }
+
+    /**
+     * Параллельный перебор числа i в общем пуле ForkJoinPool с отслеживанием прогресса
+     *
+     * @param n        кол-во шагов цикла
+     * @param loopStep консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param progress прогресс цикла
+     */
+    public static void parallelForEachLong(long n, @NotNull LongConsumer loopStep, @NotNull Progress progress) {
+        parallelForEachLong(n, loopStep, null, Objects.requireNonNull(progress), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельный перебор числа i в заданном пуле. Прогресс сообщается после каждого
+     * неделимого отрезка и каждые STEP_CHECK_INTERVAL шагов внутри него, так что потоки
+     * не трогают общий счётчик на каждом шаге
+     *
+     * @param n                 кол-во шагов цикла
+     * @param loopStep          консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param cancellationToken флаг отмены, null, если цикл нельзя отменить
+     * @param progress          прогресс цикла, null, если прогресс не отслеживается
+     * @param pool              пул потоков
+     */
+    public static void parallelForEachLong(
+            long n, @NotNull LongConsumer loopStep, @Nullable CancellationToken cancellationToken,
+            @Nullable Progress progress, @NotNull ForkJoinPool pool
+    ) {
+        if (n <= 0)
+            return;
+        if (progress != null)
+            progress.start(n);
+        try {
+            invoke(pool, new LongLoopTask(0, n, getChunkSize(n, pool), loopStep, cancellationToken, progress));
+        } finally {
+            if (progress != null)
+                progress.finish();
+        }
+    }
+
+    /**
+     * Параллельный поиск любого шага цикла, удовлетворяющего условию, в общем пуле ForkJoinPool
+     *
+     * @param n         кол-во шагов цикла
+     * @param predicate условие
+     * @return найденный шаг, пусто, если подходящих шагов нет
+     */
+    @NotNull
+    public static OptionalLong parallelFindAny(long n, @NotNull LongPredicate predicate) {
+        return parallelFindAny(n, predicate, new CancellationToken(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельный поиск любого шага цикла, удовлетворяющего условию, в общем пуле ForkJoinPool
+     *
+     * @param n                 кол-во шагов цикла
+     * @param predicate         условие
+     * @param cancellationToken флаг отмены
+     * @return найденный шаг, пусто, если подходящих шагов нет или поиск отменён до того, как шаг найден
+     */
+    @NotNull
+    public static OptionalLong parallelFindAny(
+            long n, @NotNull LongPredicate predicate, @NotNull CancellationToken cancellationToken
+    ) {
+        return parallelFindAny(n, predicate, cancellationToken, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельный поиск любого шага цикла, удовлетворяющего условию, в заданном пуле.
+     * Как только шаг найден, остальные отрезки прекращают работу
+     *
+     * @param n                 кол-во шагов цикла
+     * @param predicate         условие
+     * @param cancellationToken флаг отмены
+     * @param pool              пул потоков
+     * @return найденный шаг, пусто, если подходящих шагов нет или поиск отменён до того, как шаг найден
+     */
+    @NotNull
+    public static OptionalLong parallelFindAny(
+            long n, @NotNull LongPredicate predicate, @NotNull CancellationToken cancellationToken,
+            @NotNull ForkJoinPool pool
+    ) {
+        return find(n, predicate, cancellationToken, pool, false);
+    }
+
+    /**
+     * Параллельный поиск первого шага цикла, удовлетворяющего условию, в общем пуле ForkJoinPool
+     *
+     * @param n         кол-во шагов цикла
+     * @param predicate условие
+     * @return найденный шаг с наименьшим номером, пусто, если подходящих шагов нет
+     */
+    @NotNull
+    public static OptionalLong parallelFindFirst(long n, @NotNull LongPredicate predicate) {
+        return parallelFindFirst(n, predicate, new CancellationToken(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельный поиск первого шага цикла, удовлетворяющего условию, в общем пуле ForkJoinPool
+     *
+     * @param n                 кол-во шагов цикла
+     * @param predicate         условие
+     * @param cancellationToken флаг отмены
+     * @return найденный шаг с наименьшим номером, см. parallelFindFirst с пулом
+     */
+    @NotNull
+    public static OptionalLong parallelFindFirst(
+            long n, @NotNull LongPredicate predicate, @NotNull CancellationToken cancellationToken
+    ) {
+        return parallelFindFirst(n, predicate, cancellationToken, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельный поиск первого шага цикла, удовлетворяющего условию, в заданном пуле.
+     * После того как шаг найден, прекращают работу отрезки, которые начинаются после него,
+     * а отрезки до него доводятся до конца, поэтому возвращается шаг с наименьшим номером.
+     * Если поиск отменён, то возвращается лучший шаг из найденных к этому моменту
+     *
+     * @param n                 кол-во шагов цикла
+     * @param predicate         условие
+     * @param cancellationToken флаг отмены
+     * @param pool              пул потоков
+     * @return найденный шаг с наименьшим номером, пусто, если подходящих шагов нет
+     * или поиск отменён до того, как шаг найден
+     */
+    @NotNull
+    public static OptionalLong parallelFindFirst(
+            long n, @NotNull LongPredicate predicate, @NotNull CancellationToken cancellationToken,
+            @NotNull ForkJoinPool pool
+    ) {
+        return find(n, predicate, cancellationToken, pool, true);
+    }
+
+    /**
+     * Параллельный поиск шага цикла, удовлетворяющего условию
+     *
+     * @param n                 кол-во шагов цикла
+     * @param predicate         условие
+     * @param cancellationToken флаг отмены
+     * @param pool              пул потоков
+     * @param first             флаг, нужен ли шаг с наименьшим номером
+     * @return найденный шаг, пусто, если шаг не найден
+     */
+    @NotNull
+    private static OptionalLong find(
+            long n, @NotNull LongPredicate predicate, @NotNull CancellationToken cancellationToken,
+            @NotNull ForkJoinPool pool, boolean first
+    ) {
+        if (n <= 0)
+            return OptionalLong.empty();
+        AtomicLong found = new AtomicLong(Long.MAX_VALUE);
+        invoke(pool, new FindTask(
+                0, n, getChunkSize(n, pool), Objects.requireNonNull(predicate),
+                Objects.requireNonNull(cancellationToken), found, first
+        ));
+        long result = found.get();
+        return result == Long.MAX_VALUE ? OptionalLong.empty() : OptionalLong.of(result);
+    }
+
+    /**
+     * Параллельный перебор числа i в общем пуле ForkJoinPool
      *
      * @param n        кол-во шагов цикла
      * @param loopStep консумер, к отором описано, что делать с каждым значение счётчика цикла
      */
     public static void parallelForEach(@NotNull BigInteger n, @NotNull Consumer<BigInteger> loopStep) {
-        int threadCnt = Runtime.getRuntime().availableProcessors();
-        BigInteger step = n.divide(BigInteger.valueOf(threadCnt));
-        // заполняем массив предрассчитанных значений
-        Thread[] threads = new Thread[threadCnt];
-        for (int i = 0; i < threadCnt; i++) {
-            int finalI = i;
-            threads[i] = new Thread(() -> {
-                for (
-                        BigInteger j = step.multiply(BigInteger.valueOf(finalI));
-                        j.compareTo(finalI == threadCnt - 1 ? n : step.multiply(BigInteger.valueOf(finalI + 1))) < 0;
-                        j = j.add(BigInteger.ONE)
-                )
-                    loopStep.accept(j);
-            });
+        parallelForEach(n, loopStep, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельный перебор числа i в отдельном пуле с заданным кол-вом потоков
+     *
+     * @param n           кол-во шагов цикла
+     * @param loopStep    консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param parallelism кол-во потоков
+     */
+    public static void parallelForEach(
+            @NotNull BigInteger n, @NotNull Consumer<BigInteger> loopStep, int parallelism
+    ) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            parallelForEach(n, loopStep, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Параллельный перебор числа i в заданном пуле. Каждое значение счётчика - это отдельный
+     * BigInteger, если они не нужны, то лучше перебирать смещения, см. OffsetConsumer
+     *
+     * @param n        кол-во шагов цикла
+     * @param loopStep консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param pool     пул потоков
+     */
+    public static void parallelForEach(
+            @NotNull BigInteger n, @NotNull Consumer<BigInteger> loopStep, @NotNull ForkJoinPool pool
+    ) {
+        Objects.requireNonNull(loopStep);
+        parallelForEach(n, (base, offset) -> loopStep.accept(base.add(BigInteger.valueOf(offset))), pool);
+    }
+
+    /**
+     * Параллельный перебор числа i в общем пуле ForkJoinPool
+     *
+     * @param n        кол-во шагов цикла
+     * @param loopStep консумер, которому передаются начало отрезка и смещение от него
+     */
+    public static void parallelForEach(@NotNull BigInteger n, @NotNull OffsetConsumer loopStep) {
+        parallelForEach(n, loopStep, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельный перебор числа i в отдельном пуле с заданным кол-вом потоков
+     *
+     * @param n           кол-во шагов цикла
+     * @param loopStep    консумер, которому передаются начало отрезка и смещение от него
+     * @param parallelism кол-во потоков
+     */
+    public static void parallelForEach(@NotNull BigInteger n, @NotNull OffsetConsumer loopStep, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            parallelForEach(n, loopStep, pool);
+        } finally {
+            pool.shutdown();
         }
-        // выполняем потоки
-        for (Thread thread : threads)
-            thread.start();
-        for (Thread thread : threads)
+    }
+
+    /**
+     * Параллельный перебор числа i в заданном пуле. Интервал делится на отрезки, длины которых
+     * помещаются в long, внутри отрезка перебирается смещение long от его начала, поэтому
+     * объекты создаются не на каждое значение счётчика, а на каждый отрезок. Если n помещается
+     * в long, то начало всех отрезков равно нулю, а смещение и есть значение счётчика
+     *
+     * @param n        кол-во шагов цикла
+     * @param loopStep консумер, которому передаются начало отрезка и смещение от него
+     * @param pool     пул потоков
+     */
+    public static void parallelForEach(
+            @NotNull BigInteger n, @NotNull OffsetConsumer loopStep, @NotNull ForkJoinPool pool
+    ) {
+        if (n.signum() <= 0)
+            return;
+        long chunkSize = n.divide(BigInteger.valueOf((long) pool.getParallelism() * CHUNKS_PER_THREAD))
+                .min(BigInteger.valueOf(Long.MAX_VALUE)).max(BigInteger.ONE).longValue();
+        invoke(pool, new BigIntegerLoopTask(BigInteger.ZERO, n, chunkSize, Objects.requireNonNull(loopStep)));
+    }
+
+    /**
+     * Параллельный сбор результатов цикла в общем пуле ForkJoinPool
+     *
+     * @param n           кол-во шагов цикла
+     * @param supplier    создатель пустого накопителя
+     * @param accumulator шаг цикла, добавляющий результат в накопитель
+     * @param combiner    слияние двух накопителей, второй содержит результаты более поздних шагов
+     * @param <A>         тип накопителя
+     * @return накопитель со всеми результатами
+     */
+    @NotNull
+    public static <A> A parallelCollect(
+            long n, @NotNull Supplier<A> supplier, @NotNull ObjLongConsumer<A> accumulator,
+            @NotNull BinaryOperator<A> combiner
+    ) {
+        return parallelCollect(n, supplier, accumulator, combiner, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельный сбор результатов цикла в отдельном пуле с заданным кол-вом потоков
+     *
+     * @param n           кол-во шагов цикла
+     * @param supplier    создатель пустого накопителя
+     * @param accumulator шаг цикла, добавляющий результат в накопитель
+     * @param combiner    слияние двух накопителей, второй содержит результаты более поздних шагов
+     * @param parallelism кол-во потоков
+     * @param <A>         тип накопителя
+     * @return накопитель со всеми результатами
+     */
+    @NotNull
+    public static <A> A parallelCollect(
+            long n, @NotNull Supplier<A> supplier, @NotNull ObjLongConsumer<A> accumulator,
+            @NotNull BinaryOperator<A> combiner, int parallelism
+    ) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return parallelCollect(n, supplier, accumulator, combiner, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Параллельный сбор результатов цикла в заданном пуле. У каждого неделимого отрезка цикла
+     * свой накопитель, поэтому шаги не делят между собой ни блокировок, ни общих коллекций.
+     * Накопители сливаются по возрастанию отрезков, так что результат не зависит от порядка
+     * выполнения шагов, если слияние сохраняет порядок
+     *
+     * @param n           кол-во шагов цикла
+     * @param supplier    создатель пустого накопителя
+     * @param accumulator шаг цикла, добавляющий результат в накопитель
+     * @param combiner    слияние двух накопителей, второй содержит результаты более поздних шагов
+     * @param pool        пул потоков
+     * @param <A>         тип накопителя
+     * @return накопитель со всеми результатами
+     */
+    @NotNull
+    public static <A> A parallelCollect(
+            long n, @NotNull Supplier<A> supplier, @NotNull ObjLongConsumer<A> accumulator,
+            @NotNull BinaryOperator<A> combiner, @NotNull ForkJoinPool pool
+    ) {
+        if (n <= 0)
+            return supplier.get();
+        return invoke(pool, new CollectTask<>(0, n, getChunkSize(n, pool), supplier, accumulator, combiner));
+    }
+
+    /**
+     * Параллельная свёртка значений шагов цикла в общем пуле ForkJoinPool
+     *
+     * @param n        кол-во шагов цикла
+     * @param identity нейтральный элемент свёртки
+     * @param mapper   значение шага цикла
+     * @param reducer  ассоциативная свёртка двух значений
+     * @return свёртка значений всех шагов
+     */
+    public static long parallelReduce(
+            long n, long identity, @NotNull LongUnaryOperator mapper, @NotNull LongBinaryOperator reducer
+    ) {
+        return parallelReduce(n, identity, mapper, reducer, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Параллельная свёртка значений шагов цикла в отдельном пуле с заданным кол-вом потоков
+     *
+     * @param n           кол-во шагов цикла
+     * @param identity    нейтральный элемент свёртки
+     * @param mapper      значение шага цикла
+     * @param reducer     ассоциативная свёртка двух значений
+     * @param parallelism кол-во потоков
+     * @return свёртка значений всех шагов
+     */
+    public static long parallelReduce(
+            long n, long identity, @NotNull LongUnaryOperator mapper, @NotNull LongBinaryOperator reducer,
+            int parallelism
+    ) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return parallelReduce(n, identity, mapper, reducer, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Параллельная свёртка значений шагов цикла в заданном пуле. Каждый неделимый отрезок
+     * сворачивается в локальную переменную, а результаты отрезков сворачиваются при слиянии задач
+     *
+     * @param n        кол-во шагов цикла
+     * @param identity нейтральный элемент свёртки
+     * @param mapper   значение шага цикла
+     * @param reducer  ассоциативная свёртка двух значений
+     * @param pool     пул потоков
+     * @return свёртка значений всех шагов
+     */
+    public static long parallelReduce(
+            long n, long identity, @NotNull LongUnaryOperator mapper, @NotNull LongBinaryOperator reducer,
+            @NotNull ForkJoinPool pool
+    ) {
+        return parallelCollect(
+                n, () -> new long[]{identity},
+                (accumulator, i) -> accumulator[0] = reducer.applyAsLong(accumulator[0], mapper.applyAsLong(i)),
+                (left, right) -> {
+                    left[0] = reducer.applyAsLong(left[0], right[0]);
+                    return left;
+                }, pool
+        )[0];
+    }
+
+    /**
+     * Проверить, поддерживает ли среда выполнения виртуальные потоки
+     *
+     * @return флаг, выполняются ли блокирующие циклы в виртуальных потоках
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return BlockingExecutorHolder.VIRTUAL;
+    }
+
+    /**
+     * Параллельный перебор числа i шагами, которые большую часть времени ждут ввода-вывода,
+     * с не более чем DEFAULT_MAX_CONCURRENCY одновременно выполняемыми отрезками
+     *
+     * @param n        кол-во шагов цикла
+     * @param loopStep консумер, к отором описано, что делать с каждым значение счётчика цикла
+     */
+    public static void blockingForEachLong(long n, @NotNull LongConsumer loopStep) {
+        blockingForEachLong(n, loopStep, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Параллельный перебор числа i шагами, которые большую часть времени ждут ввода-вывода
+     *
+     * @param n              кол-во шагов цикла
+     * @param loopStep       консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param maxConcurrency наибольшее кол-во одновременно выполняемых отрезков
+     */
+    public static void blockingForEachLong(long n, @NotNull LongConsumer loopStep, int maxConcurrency) {
+        blockingForEachLong(n, loopStep, maxConcurrency, null);
+    }
+
+    /**
+     * Параллельный перебор числа i шагами, которые большую часть времени ждут ввода-вывода.
+     * Цикл делится на отрезки, каждый отрезок выполняется в своём виртуальном потоке, а если
+     * среда выполнения их не поддерживает, то в общем кэширующем пуле обычных потоков.
+     * Кол-во одновременно выполняемых отрезков ограничено семафором, поэтому заблокированные
+     * шаги не простаивают процессор, но и не открывают больше maxConcurrency файлов или
+     * симуляторов сразу. Вызывающий поток только раздаёт отрезки и ждёт их завершения,
+     * исключение первого упавшего шага пробрасывается после завершения уже запущенных отрезков
+     *
+     * @param n                 кол-во шагов цикла
+     * @param loopStep          консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param maxConcurrency    наибольшее кол-во одновременно выполняемых отрезков
+     * @param cancellationToken флаг отмены, null, если цикл нельзя отменить
+     */
+    public static void blockingForEachLong(
+            long n, @NotNull LongConsumer loopStep, int maxConcurrency, @Nullable CancellationToken cancellationToken
+    ) {
+        blockingForEachLong(n, loopStep, maxConcurrency, cancellationToken, null);
+    }
+
+    /**
+     * Параллельный перебор числа i шагами, которые большую часть времени ждут ввода-вывода,
+     * с отслеживанием прогресса, см. blockingForEachLong без прогресса
+     *
+     * @param n                 кол-во шагов цикла
+     * @param loopStep          консумер, к отором описано, что делать с каждым значение счётчика цикла
+     * @param maxConcurrency    наибольшее кол-во одновременно выполняемых отрезков
+     * @param cancellationToken флаг отмены, null, если цикл нельзя отменить
+     * @param progress          прогресс цикла, null, если прогресс не отслеживается
+     */
+    public static void blockingForEachLong(
+            long n, @NotNull LongConsumer loopStep, int maxConcurrency, @Nullable CancellationToken cancellationToken,
+            @Nullable Progress progress
+    ) {
+        if (maxConcurrency <= 0)
+            throw new IllegalArgumentException("maxConcurrency must be positive, but it is " + maxConcurrency);
+        Objects.requireNonNull(loopStep);
+        if (n <= 0)
+            return;
+        long chunkSize = Math.max(1, n / ((long) maxConcurrency * CHUNKS_PER_THREAD));
+        Semaphore semaphore = new Semaphore(maxConcurrency);
+        if (progress != null)
+            progress.start(n);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        boolean interrupted = false;
+        try {
+            for (long from = 0; from < n && error.get() == null; from += chunkSize) {
+                semaphore.acquire();
+                if (error.get() != null || (cancellationToken != null && cancellationToken.isCancelled())) {
+                    semaphore.release();
+                    break;
+                }
+                long chunkFrom = from;
+                long chunkTo = n - from <= chunkSize ? n : from + chunkSize;
+                try {
+                    BlockingExecutorHolder.EXECUTOR.execute(() -> {
+                        try {
+                            new LongLoopTask(chunkFrom, chunkTo, chunkSize, loopStep, cancellationToken, progress)
+                                    .compute();
+                        } catch (Throwable t) {
+                            error.compareAndSet(null, t);
+                        } finally {
+                            semaphore.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    semaphore.release();
+                    throw e;
+                }
+            }
+            // дожидаемся всех запущенных отрезков
+            semaphore.acquire(maxConcurrency);
+        } catch (InterruptedException e) {
+            interrupted = true;
+            semaphore.acquireUninterruptibly(maxConcurrency);
+        }
+        if (progress != null)
+            progress.finish();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("blocking loop is interrupted");
+        }
+        Throwable t = error.get();
+        if (t instanceof RuntimeException)
+            throw (RuntimeException) t;
+        if (t instanceof Error)
+            throw (Error) t;
+        if (t != null)
+            throw new AssertionError(t);
+    }
+
+    /**
+     * Ленивое создание исполнителя блокирующих циклов
+     */
+    private static class BlockingExecutorHolder {
+        /**
+         * Флаг, создаёт ли исполнитель виртуальные потоки
+         */
+        static final boolean VIRTUAL;
+        /**
+         * Исполнитель блокирующих циклов
+         */
+        @NotNull
+        static final ExecutorService EXECUTOR;
+
+        static {
+            ExecutorService executor;
             try {
-                thread.join();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+                // метод появился в Java 21, поэтому он ищется по имени, а не вызывается напрямую
+                executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                executor = null;
+            }
+            VIRTUAL = executor != null;
+            EXECUTOR = executor != null ? executor : Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "async-blocking");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Получить длину отрезка цикла, который уже не делится
+     *
+     * @param n    кол-во шагов цикла
+     * @param pool пул потоков
+     * @return длина отрезка
+     */
+    private static long getChunkSize(long n, @NotNull ForkJoinPool pool) {
+        return Math.max(1, n / ((long) pool.getParallelism() * CHUNKS_PER_THREAD));
+    }
+
+    /**
+     * Выполнить задачу в пуле. Если вызов сделан из потока того же пула (вложенный цикл),
+     * то задача выполняется в нём же, а не ставится в очередь, поэтому вложенные циклы
+     * не создают лишних потоков
+     *
+     * @param pool пул потоков
+     * @param task задача
+     * @param <T>  тип результата задачи
+     * @return результат задачи
+     */
+    private static <T> T invoke(@NotNull ForkJoinPool pool, @NotNull ForkJoinTask<T> task) {
+        if (ForkJoinTask.getPool() == pool)
+            return task.invoke();
+        return pool.invoke(task);
+    }
+
+    /**
+     * Задача перебора отрезка [from, to) значений int
+     */
+    private static class IntLoopTask extends RecursiveAction {
+        /**
+         * Версия сериализации
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Начало отрезка
+         */
+        private final int from;
+        /**
+         * Конец отрезка (не включительно)
+         */
+        private final int to;
+        /**
+         * Длина отрезка, который уже не делится
+         */
+        private final int chunkSize;
+        /**
+         * Шаг цикла
+         */
+        @NotNull
+        private final Consumer<Integer> loopStep;
+
+        /**
+         * Конструктор задачи
+         *
+         * @param from      начало отрезка
+         * @param to        конец отрезка (не включительно)
+         * @param chunkSize длина отрезка, который уже не делится
+         * @param loopStep  шаг цикла
+         */
+        IntLoopTask(int from, int to, int chunkSize, @NotNull Consumer<Integer> loopStep) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.loopStep = loopStep;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                for (int i = from; i < to; i++)
+                    loopStep.accept(i);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new IntLoopTask(from, middle, chunkSize, loopStep),
+                    new IntLoopTask(middle, to, chunkSize, loopStep)
+            );
+        }
+    }
+
+    /**
+     * Консумер шага цикла по BigInteger, значение счётчика равно base + offset
+     */
+    @FunctionalInterface
+    public interface OffsetConsumer {
+        /**
+         * Выполнить шаг цикла
+         *
+         * @param base   начало отрезка, одно и то же для всех шагов отрезка
+         * @param offset смещение от начала отрезка
+         */
+        void accept(@NotNull BigInteger base, long offset);
+    }
+
+    /**
+     * Задача перебора отрезка [from, to) значений long
+     */
+    private static class LongLoopTask extends RecursiveAction {
+        /**
+         * Версия сериализации
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Начало отрезка
+         */
+        private final long from;
+        /**
+         * Конец отрезка (не включительно)
+         */
+        private final long to;
+        /**
+         * Длина отрезка, который уже не делится
+         */
+        private final long chunkSize;
+        /**
+         * Шаг цикла
+         */
+        @NotNull
+        private final LongConsumer loopStep;
+        /**
+         * Флаг отмены, null, если цикл нельзя отменить
+         */
+        @Nullable
+        private final CancellationToken cancellationToken;
+        /**
+         * Прогресс цикла, null, если прогресс не отслеживается
+         */
+        @Nullable
+        private final Progress progress;
+
+        /**
+         * Конструктор задачи
+         *
+         * @param from      начало отрезка
+         * @param to        конец отрезка (не включительно)
+         * @param chunkSize длина отрезка, который уже не делится
+         * @param loopStep  шаг цикла
+         */
+        LongLoopTask(long from, long to, long chunkSize, @NotNull LongConsumer loopStep) {
+            this(from, to, chunkSize, loopStep, null, null);
+        }
+
+        /**
+         * Конструктор задачи
+         *
+         * @param from              начало отрезка
+         * @param to                конец отрезка (не включительно)
+         * @param chunkSize         длина отрезка, который уже не делится
+         * @param loopStep          шаг цикла
+         * @param cancellationToken флаг отмены, null, если цикл нельзя отменить
+         * @param progress          прогресс цикла, null, если прогресс не отслеживается
+         */
+        LongLoopTask(
+                long from, long to, long chunkSize, @NotNull LongConsumer loopStep,
+                @Nullable CancellationToken cancellationToken, @Nullable Progress progress
+        ) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.loopStep = loopStep;
+            this.cancellationToken = cancellationToken;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancellationToken != null && cancellationToken.isCancelled())
+                return;
+            if (to - from <= chunkSize) {
+                if (cancellationToken == null && progress == null) {
+                    for (long i = from; i < to; i++)
+                        loopStep.accept(i);
+                    return;
+                }
+                long reported = from;
+                for (long i = from; i < to; i++) {
+                    if (((i - from) & (STEP_CHECK_INTERVAL - 1)) == 0 && i != from) {
+                        if (progress != null) {
+                            progress.add(i - reported);
+                            reported = i;
+                        }
+                        if (cancellationToken != null && cancellationToken.isCancelled())
+                            return;
+                    }
+                    loopStep.accept(i);
+                }
+                if (progress != null)
+                    progress.add(to - reported);
+                return;
+            }
+            long middle = (from + to) >>> 1;
+            invokeAll(
+                    new LongLoopTask(from, middle, chunkSize, loopStep, cancellationToken, progress),
+                    new LongLoopTask(middle, to, chunkSize, loopStep, cancellationToken, progress)
+            );
+        }
+    }
+
+    /**
+     * Задача поиска шага цикла, удовлетворяющего условию, на отрезке [from, to) значений long
+     */
+    private static class FindTask extends RecursiveAction {
+        /**
+         * Версия сериализации
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Начало отрезка
+         */
+        private final long from;
+        /**
+         * Конец отрезка (не включительно)
+         */
+        private final long to;
+        /**
+         * Длина отрезка, который уже не делится
+         */
+        private final long chunkSize;
+        /**
+         * Условие
+         */
+        @NotNull
+        private final LongPredicate predicate;
+        /**
+         * Флаг отмены
+         */
+        @NotNull
+        private final CancellationToken cancellationToken;
+        /**
+         * Наименьший найденный шаг, Long.MAX_VALUE, если шаг ещё не найден
+         */
+        @NotNull
+        private final AtomicLong found;
+        /**
+         * Флаг, нужен ли шаг с наименьшим номером
+         */
+        private final boolean first;
+
+        /**
+         * Конструктор задачи
+         *
+         * @param from              начало отрезка
+         * @param to                конец отрезка (не включительно)
+         * @param chunkSize         длина отрезка, который уже не делится
+         * @param predicate         условие
+         * @param cancellationToken флаг отмены
+         * @param found             наименьший найденный шаг
+         * @param first             флаг, нужен ли шаг с наименьшим номером
+         */
+        FindTask(
+                long from, long to, long chunkSize, @NotNull LongPredicate predicate,
+                @NotNull CancellationToken cancellationToken, @NotNull AtomicLong found, boolean first
+        ) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.predicate = predicate;
+            this.cancellationToken = cancellationToken;
+            this.found = found;
+            this.first = first;
+        }
+
+        /**
+         * Проверить, нужно ли продолжать поиск с заданного шага
+         *
+         * @param i номер шага
+         * @return флаг, нужно ли продолжать поиск
+         */
+        private boolean isNeeded(long i) {
+            long foundValue = found.get();
+            if (first ? foundValue < i : foundValue != Long.MAX_VALUE)
+                return false;
+            return !cancellationToken.isCancelled();
+        }
+
+        @Override
+        protected void compute() {
+            if (!isNeeded(from))
+                return;
+            if (to - from <= chunkSize) {
+                for (long i = from; i < to; i++) {
+                    if (((i - from) & (STEP_CHECK_INTERVAL - 1)) == 0 && i != from && !isNeeded(i))
+                        return;
+                    if (predicate.test(i)) {
+                        // в отрезке шаги перебираются по возрастанию, поэтому первый найденный - наименьший
+                        found.accumulateAndGet(i, Math::min);
+                        return;
+                    }
+                }
+                return;
+            }
+            long middle = (from + to) >>> 1;
+            invokeAll(
+                    new FindTask(from, middle, chunkSize, predicate, cancellationToken, found, first),
+                    new FindTask(middle, to, chunkSize, predicate, cancellationToken, found, first)
+            );
+        }
+    }
+
+    /**
+     * Задача сбора результатов отрезка [from, to) значений long
+     *
+     * @param <A> тип накопителя
+     */
+    private static class CollectTask<A> extends RecursiveTask<A> {
+        /**
+         * Версия сериализации
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Начало отрезка
+         */
+        private final long from;
+        /**
+         * Конец отрезка (не включительно)
+         */
+        private final long to;
+        /**
+         * Длина отрезка, который уже не делится
+         */
+        private final long chunkSize;
+        /**
+         * Создатель пустого накопителя
+         */
+        @NotNull
+        private final Supplier<A> supplier;
+        /**
+         * Шаг цикла
+         */
+        @NotNull
+        private final ObjLongConsumer<A> accumulator;
+        /**
+         * Слияние накопителей
+         */
+        @NotNull
+        private final BinaryOperator<A> combiner;
+
+        /**
+         * Конструктор задачи
+         *
+         * @param from        начало отрезка
+         * @param to          конец отрезка (не включительно)
+         * @param chunkSize   длина отрезка, который уже не делится
+         * @param supplier    создатель пустого накопителя
+         * @param accumulator шаг цикла
+         * @param combiner    слияние накопителей
+         */
+        CollectTask(
+                long from, long to, long chunkSize, @NotNull Supplier<A> supplier,
+                @NotNull ObjLongConsumer<A> accumulator, @NotNull BinaryOperator<A> combiner
+        ) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= chunkSize) {
+                A result = supplier.get();
+                for (long i = from; i < to; i++)
+                    accumulator.accept(result, i);
+                return result;
             }
+            long middle = (from + to) >>> 1;
+            CollectTask<A> left = new CollectTask<>(from, middle, chunkSize, supplier, accumulator, combiner);
+            CollectTask<A> right = new CollectTask<>(middle, to, chunkSize, supplier, accumulator, combiner);
+            invokeAll(left, right);
+            return combiner.apply(left.join(), right.join());
+        }
+    }
+
+    /**
+     * Задача перебора отрезка [from, to) значений BigInteger. Отрезок делится пополам, пока
+     * его длина не поместится в long, а дальше перебирается смещение от его начала
+     */
+    private static class BigIntegerLoopTask extends RecursiveAction {
+        /**
+         * Версия сериализации
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * Начало отрезка
+         */
+        @NotNull
+        private final BigInteger from;
+        /**
+         * Конец отрезка (не включительно)
+         */
+        @NotNull
+        private final BigInteger to;
+        /**
+         * Длина отрезка, который уже не делится
+         */
+        private final long chunkSize;
+        /**
+         * Шаг цикла
+         */
+        @NotNull
+        private final OffsetConsumer loopStep;
+
+        /**
+         * Конструктор задачи
+         *
+         * @param from      начало отрезка
+         * @param to        конец отрезка (не включительно)
+         * @param chunkSize длина отрезка, который уже не делится
+         * @param loopStep  шаг цикла
+         */
+        BigIntegerLoopTask(
+                @NotNull BigInteger from, @NotNull BigInteger to, long chunkSize, @NotNull OffsetConsumer loopStep
+        ) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.loopStep = loopStep;
+        }
+
+        @Override
+        protected void compute() {
+            BigInteger length = to.subtract(from);
+            if (length.bitLength() < Long.SIZE) {
+                new LongLoopTask(0, length.longValue(), chunkSize, (offset) -> loopStep.accept(from, offset)).invoke();
+                return;
+            }
+            BigInteger middle = from.add(to).shiftRight(1);
+            invokeAll(
+                    new BigIntegerLoopTask(from, middle, chunkSize, loopStep),
+                    new BigIntegerLoopTask(middle, to, chunkSize, loopStep)
+            );
+        }
     }
 
     /**
@@ -2,19 +2,35 @@ package com.github.aoklyunin.jCollections;
 
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.math.BigInteger;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Атомарный BigInteger
+ * Атомарный BigInteger. Пока значение помещается в long, оно хранится в AtomicLong, и все операции -
+ * это одна операция CAS над long. Когда значение перестаёт помещаться, в AtomicLong записывается метка
+ * PROMOTED, а значение переносится в AtomicReference. Пока метка записана, а ссылка ещё пуста,
+ * значение переносится другим потоком, и остальные потоки его ждут. Ссылка не пуста только
+ * вместе с меткой, поэтому чтение не берёт блокировок
  */
 public final class AtomicBigInteger {
     /**
-     * ссылка на BigInteger
+     * Метка в longValue, означающая, что значение хранится в bigValue
      */
-    private final AtomicReference<BigInteger> valueHolder = new AtomicReference<>();
+    private static final long PROMOTED = Long.MIN_VALUE;
+    /**
+     * Значение, если оно помещается в long, иначе PROMOTED
+     */
+    @NotNull
+    private final AtomicLong longValue = new AtomicLong();
+    /**
+     * Значение, если longValue равно PROMOTED, null, пока значение хранится в longValue или переносится
+     */
+    @NotNull
+    private final AtomicReference<BigInteger> bigValue = new AtomicReference<>();
 
     /**
      * Конструктор атомарного BigInteger
@@ -22,7 +38,22 @@ public final class AtomicBigInteger {
      * @param bigInteger расширенное целое число
      */
     public AtomicBigInteger(@NotNull BigInteger bigInteger) {
-        valueHolder.set(bigInteger);
+        if (isLong(bigInteger))
+            longValue.set(bigInteger.longValue());
+        else {
+            longValue.set(PROMOTED);
+            bigValue.set(bigInteger);
+        }
+    }
+
+    /**
+     * Проверить, можно ли хранить значение в longValue
+     *
+     * @param value значение
+     * @return флаг, помещается ли значение в long и не совпадает ли с меткой PROMOTED
+     */
+    private static boolean isLong(@NotNull BigInteger value) {
+        return value.bitLength() < Long.SIZE && value.longValue() != PROMOTED;
     }
 
     /**
@@ -31,14 +62,8 @@ public final class AtomicBigInteger {
      * @return увеличенное на 1 значение
      */
     @NotNull
-    public synchronized BigInteger incrementAndGet() {
-        for (; ; ) {
-            BigInteger current = valueHolder.get();
-            BigInteger next = current.add(BigInteger.ONE);
-            if (valueHolder.compareAndSet(current, next)) {
-                return next;
-            }
-        }
+    public BigInteger incrementAndGet() {
+        return add(null, 1, false);
     }
 
     /**
@@ -47,17 +72,163 @@ public final class AtomicBigInteger {
      * @return значение
      */
     @NotNull
-    public synchronized BigInteger get() {
-        return valueHolder.get();
+    public BigInteger get() {
+        for (; ; ) {
+            long current = longValue.get();
+            if (current != PROMOTED)
+                return BigInteger.valueOf(current);
+            BigInteger big = bigValue.get();
+            if (big != null)
+                return big;
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Прибавить число и получить прежнее значение, например, чтобы забрать пачку номеров
+     *
+     * @param delta прибавляемое число
+     * @return значение до прибавления
+     */
+    @NotNull
+    public BigInteger getAndAdd(long delta) {
+        return add(null, delta, true);
+    }
+
+    /**
+     * Прибавить число и получить новое значение
+     *
+     * @param delta прибавляемое число
+     * @return значение после прибавления
+     */
+    @NotNull
+    public BigInteger addAndGet(@NotNull BigInteger delta) {
+        if (delta.bitLength() < Long.SIZE)
+            return add(null, delta.longValue(), false);
+        return add(delta, 0, false);
+    }
+
+    /**
+     * Прибавить число
+     *
+     * @param bigDelta прибавляемое число, если оно не помещается в long, иначе null
+     * @param delta    прибавляемое число, если bigDelta равно null
+     * @param previous флаг, нужно ли вернуть значение до прибавления, а не после
+     * @return значение до или после прибавления
+     */
+    @NotNull
+    private BigInteger add(@Nullable BigInteger bigDelta, long delta, boolean previous) {
+        for (; ; ) {
+            long current = longValue.get();
+            if (current != PROMOTED) {
+                if (bigDelta == null) {
+                    long next = current + delta;
+                    // переполнения нет, если знак суммы совпадает со знаком хотя бы одного слагаемого
+                    if (((current ^ next) & (delta ^ next)) >= 0 && next != PROMOTED) {
+                        if (longValue.compareAndSet(current, next))
+                            return BigInteger.valueOf(previous ? current : next);
+                        continue;
+                    }
+                }
+                // значение перестаёт помещаться в long, переносим его в bigValue
+                if (longValue.compareAndSet(current, PROMOTED)) {
+                    BigInteger next = BigInteger.valueOf(current).add(
+                            bigDelta != null ? bigDelta : BigInteger.valueOf(delta)
+                    );
+                    bigValue.set(next);
+                    return previous ? BigInteger.valueOf(current) : next;
+                }
+                continue;
+            }
+            BigInteger big = bigValue.get();
+            if (big == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            BigInteger next = big.add(bigDelta != null ? bigDelta : BigInteger.valueOf(delta));
+            if (bigValue.compareAndSet(big, next))
+                return previous ? big : next;
+        }
+    }
+
+    /**
+     * Атомарно заменить значение, если оно равно ожидаемому. Значения сравниваются по величине,
+     * а не по ссылке, поэтому ожидаемое значение не обязано быть объектом, полученным методом get()
+     *
+     * @param expect ожидаемое значение
+     * @param update новое значение
+     * @return флаг, получилось ли заменить значение
+     */
+    public boolean compareAndSet(@NotNull BigInteger expect, @NotNull BigInteger update) {
+        Objects.requireNonNull(update);
+        for (; ; ) {
+            long current = longValue.get();
+            if (current != PROMOTED) {
+                if (!isLong(expect) || expect.longValue() != current)
+                    return false;
+                if (replaceLong(current, update))
+                    return true;
+                continue;
+            }
+            BigInteger big = bigValue.get();
+            if (big == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (!big.equals(expect))
+                return false;
+            if (replaceBig(big, update))
+                return true;
+        }
+    }
+
+    /**
+     * Заменить значение, хранящееся в longValue
+     *
+     * @param current текущее значение
+     * @param update  новое значение
+     * @return флаг, получилось ли заменить значение, false, если текущее значение изменилось
+     */
+    private boolean replaceLong(long current, @NotNull BigInteger update) {
+        if (isLong(update))
+            return longValue.compareAndSet(current, update.longValue());
+        if (!longValue.compareAndSet(current, PROMOTED))
+            return false;
+        bigValue.set(update);
+        return true;
+    }
+
+    /**
+     * Заменить значение, хранящееся в bigValue. Если новое значение помещается в long,
+     * то оно переносится обратно в longValue
+     *
+     * @param current текущее значение
+     * @param update  новое значение
+     * @return флаг, получилось ли заменить значение, false, если текущее значение изменилось
+     */
+    private boolean replaceBig(@NotNull BigInteger current, @NotNull BigInteger update) {
+        if (!isLong(update))
+            return bigValue.compareAndSet(current, update);
+        // пока ссылка пуста, а метка записана, остальные потоки ждут
+        if (!bigValue.compareAndSet(current, null))
+            return false;
+        longValue.set(update.longValue());
+        return true;
     }
 
     /**
      * Увеличить текущее значение на 1
      */
-    public synchronized void increment() {
-        BigInteger current = valueHolder.get();
-        BigInteger next = current.add(BigInteger.ONE);
-        valueHolder.set(next);
+    public void increment() {
+        for (; ; ) {
+            long current = longValue.get();
+            if (current == PROMOTED || current == Long.MAX_VALUE) {
+                add(null, 1, false);
+                return;
+            }
+            if (longValue.compareAndSet(current, current + 1))
+                return;
+        }
     }
 
     /**
@@ -65,13 +236,28 @@ public final class AtomicBigInteger {
      *
      * @param integer новое значение
      */
-    public synchronized void set(@NotNull BigInteger integer) {
-        valueHolder.set(integer);
+    public void set(@NotNull BigInteger integer) {
+        Objects.requireNonNull(integer);
+        for (; ; ) {
+            long current = longValue.get();
+            if (current != PROMOTED) {
+                if (replaceLong(current, integer))
+                    return;
+                continue;
+            }
+            BigInteger big = bigValue.get();
+            if (big == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (replaceBig(big, integer))
+                return;
+        }
     }
 
     @Override
     public String toString() {
-        return valueHolder.get().toString();
+        return get().toString();
     }
 
     @Override
@@ -79,11 +265,11 @@ public final class AtomicBigInteger {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         AtomicBigInteger that = (AtomicBigInteger) o;
-        return Objects.equals(valueHolder.get(), that.valueHolder.get());
+        return Objects.equals(get(), that.get());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(valueHolder.get());
+        return Objects.hash(get());
     }
 }
@@ -0,0 +1,76 @@
+package com.github.aoklyunin.jCollections;
+
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Флаг отмены параллельного цикла. Цикл проверяет его на границах отрезков
+ * и прекращает работу, если флаг поднят вручную или истёк срок
+ */
+public class CancellationToken {
+    /**
+     * Флаг, отменён ли цикл
+     */
+    private volatile boolean cancelled;
+    /**
+     * Флаг, задан ли срок
+     */
+    private final boolean hasDeadline;
+    /**
+     * Срок по System.nanoTime()
+     */
+    private final long deadline;
+
+    /**
+     * Конструктор флага отмены без срока
+     */
+    public CancellationToken() {
+        this.hasDeadline = false;
+        this.deadline = 0;
+    }
+
+    /**
+     * Конструктор флага отмены, который сам поднимается по истечении времени
+     *
+     * @param timeout время до отмены
+     * @param unit    единица измерения времени
+     */
+    public CancellationToken(long timeout, @NotNull TimeUnit unit) {
+        this.hasDeadline = true;
+        this.deadline = System.nanoTime() + unit.toNanos(timeout);
+    }
+
+    /**
+     * Отменить цикл
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Проверить, отменён ли цикл
+     *
+     * @return флаг, отменён ли цикл вручную или по сроку
+     */
+    public boolean isCancelled() {
+        if (cancelled)
+            return true;
+        if (hasDeadline && System.nanoTime() - deadline >= 0) {
+            cancelled = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "CancellationToken{cancelled}"
+     */
+    @Override
+    public String toString() {
+        return "CancellationToken{" + isCancelled() + '}';
+    }
+}
@@ -0,0 +1,205 @@
+package com.github.aoklyunin.jCollections;
+
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Прогресс долгого параллельного цикла. Потоки прибавляют выполненные шаги к счётчику LongAdder,
+ * у которого своя ячейка на каждый поток, поэтому они не соревнуются за одну переменную. Слушатель
+ * вызывается не чаще, чем раз в заданный интервал, тем потоком, который первым заметил, что интервал
+ * истёк, и по нему можно посчитать скорость и оставшееся время. Цикл без прогресса не тратит на него
+ * ничего, кроме проверки на null
+ */
+public class Progress {
+    /**
+     * Слушатель прогресса
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Обработать прогресс. Вызывается из потоков цикла, поэтому должен быть быстрым
+         *
+         * @param progress прогресс
+         */
+        void onProgress(@NotNull Progress progress);
+    }
+
+    /**
+     * Кол-во выполненных шагов
+     */
+    @NotNull
+    private final LongAdder done = new LongAdder();
+    /**
+     * Время следующего вызова слушателя по System.nanoTime()
+     */
+    @NotNull
+    private final AtomicLong nextReportTime = new AtomicLong();
+    /**
+     * Интервал между вызовами слушателя в наносекундах
+     */
+    private final long interval;
+    /**
+     * Слушатель прогресса
+     */
+    @NotNull
+    private final Listener listener;
+    /**
+     * Общее кол-во шагов
+     */
+    private volatile long total;
+    /**
+     * Время начала цикла по System.nanoTime()
+     */
+    private volatile long startTime = System.nanoTime();
+    /**
+     * Флаг, завершён ли цикл
+     */
+    private volatile boolean finished;
+
+    /**
+     * Конструктор прогресса, о котором слушатель узнаёт раз в секунду
+     *
+     * @param listener слушатель прогресса
+     */
+    public Progress(@NotNull Listener listener) {
+        this(listener, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Конструктор прогресса
+     *
+     * @param listener слушатель прогресса
+     * @param interval интервал между вызовами слушателя
+     * @param unit     единица измерения интервала
+     */
+    public Progress(@NotNull Listener listener, long interval, @NotNull TimeUnit unit) {
+        if (interval < 0)
+            throw new IllegalArgumentException("progress interval must not be negative, but it is " + interval);
+        this.listener = Objects.requireNonNull(listener);
+        this.interval = unit.toNanos(interval);
+    }
+
+    /**
+     * Начать отсчёт прогресса цикла заново, вызывается циклом перед первым шагом
+     *
+     * @param total общее кол-во шагов
+     */
+    public void start(long total) {
+        done.reset();
+        this.total = total;
+        this.finished = false;
+        long now = System.nanoTime();
+        this.startTime = now;
+        nextReportTime.set(now + interval);
+    }
+
+    /**
+     * Прибавить выполненные шаги и вызвать слушателя, если истёк интервал
+     *
+     * @param cnt кол-во выполненных шагов
+     */
+    public void add(long cnt) {
+        done.add(cnt);
+        long now = System.nanoTime();
+        long next = nextReportTime.get();
+        if (now - next >= 0 && nextReportTime.compareAndSet(next, now + interval))
+            listener.onProgress(this);
+    }
+
+    /**
+     * Завершить цикл и вызвать слушателя с итоговым прогрессом
+     */
+    public void finish() {
+        finished = true;
+        listener.onProgress(this);
+    }
+
+    /**
+     * Получить кол-во выполненных шагов
+     *
+     * @return кол-во выполненных шагов
+     */
+    public long getDone() {
+        return done.sum();
+    }
+
+    /**
+     * Получить общее кол-во шагов
+     *
+     * @return общее кол-во шагов
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Проверить, завершён ли цикл
+     *
+     * @return флаг, завершён ли цикл
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Получить долю выполненных шагов
+     *
+     * @return доля выполненных шагов от 0 до 1
+     */
+    public double getFraction() {
+        long total = this.total;
+        return total <= 0 ? 1 : Math.min(1, (double) getDone() / total);
+    }
+
+    /**
+     * Получить время, прошедшее с начала цикла
+     *
+     * @param unit единица измерения времени
+     * @return время, прошедшее с начала цикла
+     */
+    public long getElapsed(@NotNull TimeUnit unit) {
+        return unit.convert(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Получить среднюю скорость цикла с его начала
+     *
+     * @return кол-во шагов в секунду
+     */
+    public double getItemsPerSecond() {
+        long elapsed = System.nanoTime() - startTime;
+        return elapsed <= 0 ? 0 : getDone() * 1e9 / elapsed;
+    }
+
+    /**
+     * Получить оценку оставшегося времени по средней скорости цикла
+     *
+     * @param unit единица измерения времени
+     * @return оставшееся время, -1, если скорость ещё неизвестна
+     */
+    public long getEta(@NotNull TimeUnit unit) {
+        long remaining = Math.max(0, total - getDone());
+        if (remaining == 0)
+            return 0;
+        double itemsPerSecond = getItemsPerSecond();
+        if (itemsPerSecond <= 0)
+            return -1;
+        return unit.convert((long) Math.min(Long.MAX_VALUE, remaining / itemsPerSecond * 1e9), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "Progress{done/total, itemsPerSecond/s, ETA etas}"
+     */
+    @Override
+    public String toString() {
+        return "Progress{" + getDone() + "/" + total + ", " + String.format("%.1f", getItemsPerSecond()) +
+                "/s, ETA " + getEta(TimeUnit.SECONDS) + "s}";
+    }
+}
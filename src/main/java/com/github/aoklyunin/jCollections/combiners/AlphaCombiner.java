@@ -4,9 +4,8 @@ import com.github.aoklyunin.jCollections.combiners.ranges.Range;
 import org.jetbrains.annotations.NotNull;
 
 import java.math.BigInteger;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Класс переборщика комбинаций перебирает все наборы комбинаций из двух диапазонов
@@ -59,10 +58,29 @@ public class AlphaCombiner extends Combiner {
      */
     @NotNull
     public BigInteger alphaConv(@NotNull List<List<?>> combinationSets) {
-        BigInteger result = BigInteger.ZERO;
+        long[] words = new long[1];
         for (List<?> combination : combinationSets) {
             int value = simpleConv(combination);
-            result = result.setBit(value);
+            if (value / Long.SIZE >= words.length)
+                words = Arrays.copyOf(words, Math.max(words.length * 2, value / Long.SIZE + 1));
+            words[value / Long.SIZE] |= 1L << value;
+        }
+        return fromWords(words);
+    }
+
+    /**
+     * Узнать номер набора комбинаций по его значению, если номера всех комбинаций меньше 63
+     *
+     * @param combinationSets комбинации
+     * @return номер комбинации
+     */
+    public long longAlphaConv(@NotNull List<List<?>> combinationSets) {
+        long result = 0;
+        for (List<?> combination : combinationSets) {
+            int value = simpleConv(combination);
+            if (value >= Long.SIZE - 1)
+                throw new AssertionError("combination number " + value + " does not fit in long combination set value");
+            result |= 1L << value;
         }
         return result;
     }
@@ -75,16 +93,130 @@ public class AlphaCombiner extends Combiner {
      */
     @NotNull
     public List<List<?>> alphaDeconv(@NotNull BigInteger value) {
+        if (value.bitLength() < Long.SIZE)
+            return alphaDeconv(value.longValue());
+        return alphaDeconv(toWords(value));
+    }
+
+    /**
+     * Преобразование номера набора комбинаций в набор комбинаций
+     *
+     * @param value номер комбинации
+     * @return следующая комбинация
+     */
+    @NotNull
+    public List<List<?>> alphaDeconv(long value) {
         List<List<?>> lst = new LinkedList<>();
-        int bitCnt = value.bitLength();
-        for (int i = 0; i < bitCnt; i++) {
-            if (value.testBit(i)) {
-                lst.add(deconv(BigInteger.valueOf(i)));
-            }
+        // перебираем только единичные биты
+        for (long rest = value; rest != 0; rest &= rest - 1)
+            lst.add(deconv((long) Long.numberOfTrailingZeros(rest)));
+        return lst;
+    }
+
+    /**
+     * Преобразование номера набора комбинаций, записанного в массив long начиная с младших битов,
+     * в набор комбинаций
+     *
+     * @param words биты номера набора
+     * @return следующая комбинация
+     */
+    @NotNull
+    public List<List<?>> alphaDeconv(@NotNull long[] words) {
+        List<List<?>> lst = new LinkedList<>();
+        for (int i = 0; i < words.length; i++) {
+            for (long rest = words[i]; rest != 0; rest &= rest - 1)
+                lst.add(deconv((long) i * Long.SIZE + Long.numberOfTrailingZeros(rest)));
         }
         return lst;
     }
 
+    /**
+     * Получить ленивый итератор всех наборов комбинаций. Номер набора хранится в массиве long
+     * и увеличивается на месте, поэтому перебор не создаёт BigInteger для каждого набора
+     *
+     * @return итератор всех наборов комбинаций
+     */
+    @NotNull
+    public Iterator<List<List<?>>> alphaIterator() {
+        long[] limit = toWords(combinationCnt);
+        return new Iterator<List<List<?>>>() {
+            /**
+             * Биты номера текущего набора
+             */
+            private final long[] words = new long[limit.length];
+
+            @Override
+            public boolean hasNext() {
+                return !Arrays.equals(words, limit);
+            }
+
+            @Override
+            public List<List<?>> next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                List<List<?>> combinationSets = alphaDeconv(words);
+                // увеличиваем номер набора на 1
+                for (int i = 0; i < words.length; i++) {
+                    if (++words[i] != 0)
+                        break;
+                }
+                return combinationSets;
+            }
+        };
+    }
+
+    /**
+     * Перевести неотрицательное число в массив long, в который биты записаны начиная с младших
+     *
+     * @param value число
+     * @return биты числа
+     */
+    @NotNull
+    protected static long[] toWords(@NotNull BigInteger value) {
+        long[] words = new long[Math.max(1, (value.bitLength() + Long.SIZE - 1) / Long.SIZE)];
+        for (int i = 0; i < words.length; i++)
+            words[i] = value.shiftRight(i * Long.SIZE).longValue();
+        return words;
+    }
+
+    /**
+     * Перевести биты, записанные в массив long начиная с младших, в неотрицательное число
+     *
+     * @param words биты числа
+     * @return число
+     */
+    @NotNull
+    protected static BigInteger fromWords(@NotNull long[] words) {
+        if (words.length == 1 && words[0] >= 0)
+            return BigInteger.valueOf(words[0]);
+        byte[] bytes = new byte[words.length * Long.BYTES + 1];
+        for (int i = 0; i < words.length; i++) {
+            for (int b = 0; b < Long.BYTES; b++)
+                bytes[bytes.length - 1 - i * Long.BYTES - b] = (byte) (words[i] >>> (b * Byte.SIZE));
+        }
+        return new BigInteger(bytes);
+    }
+
+    /**
+     * Получить последовательный поток всех наборов комбинаций
+     *
+     * @return поток всех наборов комбинаций
+     */
+    @NotNull
+    public Stream<List<List<?>>> alphaStream() {
+        return stream(this::alphaDeconv, false);
+    }
+
+    /**
+     * Получить параллельный поток всех наборов комбинаций
+     *
+     * @return параллельный поток всех наборов комбинаций
+     */
+    @NotNull
+    public Stream<List<List<?>>> parallelAlphaStream() {
+        return stream(this::alphaDeconv, true);
+    }
+
     /**
      * Строковое представление объекта вида:
      *
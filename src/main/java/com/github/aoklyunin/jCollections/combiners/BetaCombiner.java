@@ -1,11 +1,11 @@
 package com.github.aoklyunin.jCollections.combiners;
 
-import com.github.aoklyunin.jCollections.Async;
 import com.github.aoklyunin.jCollections.combiners.ranges.Range;
 import org.jetbrains.annotations.NotNull;
 
 import java.math.BigInteger;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Класс переборщика комбинаций перебирает наборы комбинаций из двух диапазонов
@@ -17,15 +17,6 @@ public class BetaCombiner extends Combiner {
      * Сколько бит занимает максимальный порядковый номерзначения из дополнительного диапазона
      */
     private int auxiliaryBitSize;
-    /**
-     * Список чисел, соответствующих устраивающим нас наборам комбинаций
-     * Каждое число через последовательность битов определяет подбираемый набор комбинаций.
-     * Каждой комбинации соответствует бит равный одному в этом числе. Номера единичных битов
-     * определяют порядковые номера комбинаций, содержащихся в наборе.
-     */
-    @NotNull
-    private List<BigInteger> combinationSetValuesTable;
-
     /**
      * Конструктор комбайнера
      *
@@ -40,75 +31,57 @@ public class BetaCombiner extends Combiner {
     }
 
     /**
-     * Рассчитать количество комбинаций
+     * Рассчитать количество комбинаций.
+     * Каждое значение главного диапазона либо не входит в набор, либо входит в паре
+     * с одним из значений дополнительного диапазона, поэтому наборов (auxCnt+1)^mainCnt
      */
     @Override
     protected void calculateCombinationCnt() {
         // рассчитываем кол-во бит, которое занимает максимальный порядковый номерзначения из дополнительного диапазона
         auxiliaryBitSize = Integer.highestOneBit(ranges.get(1).getStepCnt());
-        // создаём список чисел, соответствующих наборам комбинаций
-        List<BigInteger> newCombinationSetValuesList = Collections.synchronizedList(new LinkedList<>());
-        // максимальное число, которое надо проверить, подходит ли соответствующий ему набор комбинаций требованиям
-        // комбайнера(первое - уникальное, воторое можетповторяться)
-        BigInteger maxLoopValue = BigInteger.ONE
-                .shiftLeft(ranges.get(0).getStepCnt() * (auxiliaryBitSize + 1))
-                .subtract(BigInteger.ONE);
-        // перебираем числа
-        //System.out.println(auxiliaryBitSize+"  "+ranges.get(0).getStepCnt()+" "+maxLoopValue);
-        Async.parallelForEach(maxLoopValue, (i) -> {
-            boolean flgAdd = true;
-            // перебираем биты числа
-            for (int j = 0; j < i.bitLength(); j++) {
-                // бит, отвечающий за число из первого диапазона
-                int curPos = j * (auxiliaryBitSize + 1);
-                // если этот бит равен нулю
-                if (!i.testBit(curPos)) {
-                    // и хотя бы один из битов, задающий номер значения из второго
-                    // интервала равен единице, то такое число не может соответствовать одной из нужных нам комбинаций
-                    for (int k = 0; k < auxiliaryBitSize; k++) {
-                        if (i.testBit(curPos + auxiliaryBitSize - k)) {
-                            flgAdd = false;
-                        }
-                    }
-                }
-            }
-            if (flgAdd) {
-                synchronized (newCombinationSetValuesList) {
-                    newCombinationSetValuesList.add(i);
-                }
-            }
-        });
-        combinationSetValuesTable = new ArrayList<>(newCombinationSetValuesList);
-        combinationCnt = BigInteger.valueOf(combinationSetValuesTable.size());
+        combinationCnt = BigInteger.valueOf(getDigitRadix()).pow(ranges.get(0).getStepCnt() + 1);
+    }
+
+    /**
+     * Получить основание разрядов номера набора: разряд, соответствующий значению главного диапазона,
+     * равен нулю, если значения нет в наборе, и номеру шага дополнительного диапазона плюс один, если есть
+     *
+     * @return основание разрядов номера набора
+     */
+    private int getDigitRadix() {
+        return ranges.get(1).getStepCnt() + 2;
     }
 
     /**
      * Узнать номер набора комбинаций по его значению
      *
      * @param combinationSets комбинации
-     * @return номер комбинации
+     * @return номер комбинации, -1, если в наборе повторяются значения главного диапазона
      */
     @NotNull
     public BigInteger betaConv(@NotNull List<List<?>> combinationSets) {
-        BigInteger result = BigInteger.ZERO;
+        // разряды номера набора по номерам шагов главного диапазона
+        int[] digits = new int[ranges.get(0).getStepCnt() + 1];
         for (List<?> combination : combinationSets) {
             Iterator<?> it = combination.iterator();
             // получаем номер первого значения в комбинации
             int num1 = ranges.get(0).getStepNum(it.next());
-            // выставляем в числе соответсвтующий бит
-            result = result.setBit((auxiliaryBitSize + 1) * num1);
+            if (digits[num1] != 0)
+                return BigInteger.ONE.negate();
             // получаем номер второго значения в комбинации
-            int num2 = ranges.get(1).getStepNum(it.next());
-            // задаёт auxiliaryBitSize последующих битов
-            // двоичным представлением этого числа
-            for (int j = 0; j < auxiliaryBitSize; j++) {
-                if (num2 % 2 == 1)
-                    result = result.setBit((auxiliaryBitSize + 1) * num1 + j + 1);
-                num2 = num2 / 2;
-            }
+            digits[num1] = ranges.get(1).getStepNum(it.next()) + 1;
         }
-        // получаем номер набора в списке номеров наборов
-        return BigInteger.valueOf(combinationSetValuesTable.indexOf(result));
+        int radix = getDigitRadix();
+        if (combinationCnt.bitLength() < Long.SIZE) {
+            long result = 0;
+            for (int i = digits.length - 1; i >= 0; i--)
+                result = result * radix + digits[i];
+            return BigInteger.valueOf(result);
+        }
+        BigInteger result = BigInteger.ZERO;
+        for (int i = digits.length - 1; i >= 0; i--)
+            result = result.multiply(BigInteger.valueOf(radix)).add(BigInteger.valueOf(digits[i]));
+        return result;
     }
 
     /**
@@ -119,31 +92,63 @@ public class BetaCombiner extends Combiner {
      */
     @NotNull
     public List<List<?>> betaDeconv(@NotNull BigInteger value) {
+        if (value.signum() < 0 || value.compareTo(combinationCnt) >= 0)
+            throw new AssertionError("combination set number " + value + " is out of range [0, " +
+                    combinationCnt + ")");
         List<List<?>> lst = new LinkedList<>();
-        // получаем число, соответствующее нужнойнам комбинации
-        BigInteger realValue = combinationSetValuesTable.get(value.intValue());
-        // перебираем номера всех битов,которые отвечают за значения первого диапазона
-        int bitCnt = realValue.bitLength();
-        for (int i = 0; i <= bitCnt / (auxiliaryBitSize + 1); i++) {
-            //получаем номер бита
-            int curPos = i * (auxiliaryBitSize + 1);
-            // если бит равен единице, значит есть комбинация с этим числом
-            if (realValue.testBit(curPos)) {
-                LinkedList<Object> combination = new LinkedList<>();
-                combination.add(ranges.get(0).getValue(i));
-                // из остальных битов формируем номерзначения из второго диапазона
-                int auxValue = 0;
-                for (int j = 0; j < auxiliaryBitSize; j++) {
-                    auxValue = auxValue * 2;
-                    if (realValue.testBit(curPos + auxiliaryBitSize - j)) {
-                        auxValue++;
-                    }
-                }
-                combination.add(ranges.get(1).getValue(auxValue));
-                lst.add(combination);
+        int radix = getDigitRadix();
+        int mainCnt = ranges.get(0).getStepCnt() + 1;
+        if (combinationCnt.bitLength() < Long.SIZE) {
+            long rest = value.longValue();
+            for (int i = 0; i < mainCnt; i++) {
+                addCombination(lst, i, (int) (rest % radix));
+                rest /= radix;
+            }
+        } else {
+            BigInteger rest = value;
+            for (int i = 0; i < mainCnt; i++) {
+                BigInteger[] divRem = rest.divideAndRemainder(BigInteger.valueOf(radix));
+                addCombination(lst, i, divRem[1].intValue());
+                rest = divRem[0];
             }
         }
-        return new LinkedList<>(lst);
+        return lst;
+    }
+
+    /**
+     * Добавить в набор комбинацию, заданную разрядом номера набора
+     *
+     * @param lst     набор комбинаций
+     * @param mainNum номер шага главного диапазона
+     * @param digit   разряд номера набора
+     */
+    private void addCombination(@NotNull List<List<?>> lst, int mainNum, int digit) {
+        if (digit == 0)
+            return;
+        LinkedList<Object> combination = new LinkedList<>();
+        combination.add(ranges.get(0).getValue(mainNum));
+        combination.add(ranges.get(1).getValue(digit - 1));
+        lst.add(combination);
+    }
+
+    /**
+     * Получить последовательный поток всех наборов комбинаций
+     *
+     * @return поток всех наборов комбинаций
+     */
+    @NotNull
+    public Stream<List<List<?>>> betaStream() {
+        return stream(this::betaDeconv, false);
+    }
+
+    /**
+     * Получить параллельный поток всех наборов комбинаций
+     *
+     * @return параллельный поток всех наборов комбинаций
+     */
+    @NotNull
+    public Stream<List<List<?>>> parallelBetaStream() {
+        return stream(this::betaDeconv, true);
     }
 
     /**
@@ -183,15 +188,13 @@ public class BetaCombiner extends Combiner {
 
         BetaCombiner that = (BetaCombiner) o;
 
-        if (auxiliaryBitSize != that.auxiliaryBitSize) return false;
-        return Objects.equals(combinationSetValuesTable, that.combinationSetValuesTable);
+        return auxiliaryBitSize == that.auxiliaryBitSize;
     }
 
     @Override
     public int hashCode() {
         int result = super.hashCode();
         result = 31 * result + auxiliaryBitSize;
-        result = 31 * result + combinationSetValuesTable.hashCode();
         return result;
     }
 }
@@ -0,0 +1,127 @@
+package com.github.aoklyunin.jCollections.combiners;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.Objects;
+
+/**
+ * Пачка номеров комбинаций, выданная комбайнером одному обработчику: полуинтервал [from, to)
+ */
+public class CombinationBatch {
+    /**
+     * Первый номер комбинации в пачке
+     */
+    @NotNull
+    private final BigInteger from;
+    /**
+     * Номер комбинации, следующий за последним в пачке
+     */
+    @NotNull
+    private final BigInteger to;
+
+    /**
+     * Конструктор пачки номеров комбинаций
+     *
+     * @param from первый номер комбинации в пачке
+     * @param to   номер комбинации, следующий за последним в пачке
+     */
+    public CombinationBatch(@NotNull BigInteger from, @NotNull BigInteger to) {
+        this.from = Objects.requireNonNull(from);
+        this.to = Objects.requireNonNull(to);
+    }
+
+    /**
+     * Конструктор пачки номеров комбинаций
+     *
+     * @param from первый номер комбинации в пачке
+     * @param to   номер комбинации, следующий за последним в пачке
+     */
+    public CombinationBatch(long from, long to) {
+        this(BigInteger.valueOf(from), BigInteger.valueOf(to));
+    }
+
+    /**
+     * Проверка, пуста ли пачка (комбинации закончились)
+     *
+     * @return флаг, пуста ли пачка
+     */
+    public boolean isEmpty() {
+        return from.compareTo(to) >= 0;
+    }
+
+    /**
+     * Получить количество номеров в пачке
+     *
+     * @return количество номеров в пачке
+     */
+    public long getSize() {
+        return to.subtract(from).longValue();
+    }
+
+    /**
+     * Получить первый номер комбинации в пачке
+     *
+     * @return первый номер комбинации в пачке
+     */
+    @NotNull
+    public BigInteger getFrom() {
+        return from;
+    }
+
+    /**
+     * Получить номер комбинации, следующий за последним в пачке
+     *
+     * @return номер комбинации, следующий за последним в пачке
+     */
+    @NotNull
+    public BigInteger getTo() {
+        return to;
+    }
+
+    /**
+     * Получить первый номер комбинации в пачке, если он помещается в long
+     *
+     * @return первый номер комбинации в пачке
+     */
+    public long getLongFrom() {
+        return from.longValueExact();
+    }
+
+    /**
+     * Получить номер комбинации, следующий за последним в пачке, если он помещается в long
+     *
+     * @return номер комбинации, следующий за последним в пачке
+     */
+    public long getLongTo() {
+        return to.longValueExact();
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "CombinationBatch{[from, to)}"
+     */
+    @Override
+    public String toString() {
+        return "CombinationBatch{[" + from + ", " + to + ")}";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        CombinationBatch that = (CombinationBatch) o;
+
+        if (!from.equals(that.from)) return false;
+        return to.equals(that.to);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = from.hashCode();
+        result = 31 * result + to.hashCode();
+        return result;
+    }
+}
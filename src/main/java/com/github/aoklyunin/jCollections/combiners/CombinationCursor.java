@@ -0,0 +1,206 @@
+package com.github.aoklyunin.jCollections.combiners;
+
+import com.github.aoklyunin.jCollections.combiners.ranges.Range;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Курсор перебора комбинаций комбайнера. Хранит номера шагов всех диапазонов и при переходе
+ * к следующей комбинации увеличивает их как одометр: чаще всего меняется только младший
+ * разряд, поэтому переход в среднем стоит O(1) и не зависит от количества диапазонов.
+ * Курсор не потокобезопасен, каждому потоку нужен свой курсор.
+ */
+public class CombinationCursor {
+    /**
+     * список диапазонов значений
+     */
+    @NotNull
+    private final List<Range> ranges;
+    /**
+     * Номера диапазонов, участвующих в свёртке, от младшего разряда к старшему
+     */
+    @NotNull
+    private final int[] digitRangeIndexes;
+    /**
+     * Номера шагов диапазонов в текущей комбинации
+     */
+    @NotNull
+    private final int[] steps;
+    /**
+     * Значения диапазонов в текущей комбинации
+     */
+    @NotNull
+    private final Object[] values;
+    /**
+     * Номер комбинации, на который курсор был установлен последним вызовом seek()
+     */
+    @NotNull
+    private BigInteger seekPos;
+    /**
+     * Количество шагов курсора после последнего вызова seek()
+     */
+    private long offset;
+
+    /**
+     * Конструктор курсора, курсор устанавливается на нулевую комбинацию
+     *
+     * @param combiner комбайнер, комбинации которого нужно перебирать
+     */
+    public CombinationCursor(@NotNull Combiner combiner) {
+        this.ranges = Objects.requireNonNull(combiner).ranges;
+        int digitCnt = 0;
+        for (Range range : ranges) {
+            if (!range.isEmpty() && range.isEnabled())
+                digitCnt++;
+        }
+        digitRangeIndexes = new int[digitCnt];
+        digitCnt = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            if (!ranges.get(i).isEmpty() && ranges.get(i).isEnabled())
+                digitRangeIndexes[digitCnt++] = i;
+        }
+        steps = new int[ranges.size()];
+        values = new Object[ranges.size()];
+        seek(0);
+    }
+
+    /**
+     * Установить курсор на комбинацию
+     *
+     * @param combinationNumber номер комбинации
+     */
+    public void seek(long combinationNumber) {
+        seekPos = BigInteger.valueOf(combinationNumber);
+        offset = 0;
+        initDisabledValues();
+        for (int rangeIndex : digitRangeIndexes) {
+            Range range = ranges.get(rangeIndex);
+            setStep(rangeIndex, (int) (combinationNumber % (range.getStepCnt() + 1)));
+            combinationNumber = combinationNumber / (range.getStepCnt() + 1);
+        }
+    }
+
+    /**
+     * Установить курсор на комбинацию
+     *
+     * @param combinationNumber номер комбинации
+     */
+    public void seek(@NotNull BigInteger combinationNumber) {
+        if (combinationNumber.bitLength() < Long.SIZE) {
+            seek(combinationNumber.longValue());
+            return;
+        }
+        seekPos = combinationNumber;
+        offset = 0;
+        initDisabledValues();
+        for (int rangeIndex : digitRangeIndexes) {
+            BigInteger[] divRem = combinationNumber.divideAndRemainder(
+                    BigInteger.valueOf(ranges.get(rangeIndex).getStepCnt() + 1)
+            );
+            setStep(rangeIndex, divRem[1].intValue());
+            combinationNumber = divRem[0];
+        }
+    }
+
+    /**
+     * Заполнить значения запрещённых диапазонов их значениями по умолчанию
+     */
+    private void initDisabledValues() {
+        for (int i = 0; i < ranges.size(); i++) {
+            Range range = ranges.get(i);
+            if (!range.isEmpty() && !range.isEnabled())
+                values[i] = range.getCurrentValue();
+        }
+    }
+
+    /**
+     * Перейти к следующей комбинации
+     */
+    public void next() {
+        offset++;
+        for (int rangeIndex : digitRangeIndexes) {
+            if (steps[rangeIndex] < ranges.get(rangeIndex).getStepCnt()) {
+                setStep(rangeIndex, steps[rangeIndex] + 1);
+                return;
+            }
+            setStep(rangeIndex, 0);
+        }
+    }
+
+    /**
+     * Задать номер шага диапазона
+     *
+     * @param rangeIndex номер диапазона
+     * @param step       номер шага
+     */
+    private void setStep(int rangeIndex, int step) {
+        steps[rangeIndex] = step;
+        values[rangeIndex] = ranges.get(rangeIndex).getValue(step);
+    }
+
+    /**
+     * Получить номер текущей комбинации
+     *
+     * @return номер текущей комбинации
+     */
+    @NotNull
+    public BigInteger getPosition() {
+        return offset == 0 ? seekPos : seekPos.add(BigInteger.valueOf(offset));
+    }
+
+    /**
+     * Получить номер текущей комбинации, если он помещается в long
+     *
+     * @return номер текущей комбинации
+     */
+    public long getLongPosition() {
+        return seekPos.longValueExact() + offset;
+    }
+
+    /**
+     * Получить номер шага диапазона в текущей комбинации
+     *
+     * @param rangeIndex номер диапазона
+     * @return номер шага
+     */
+    public int getStep(int rangeIndex) {
+        return steps[rangeIndex];
+    }
+
+    /**
+     * Получить значение диапазона в текущей комбинации
+     *
+     * @param rangeIndex номер диапазона
+     * @return значение диапазона
+     */
+    public Object getValue(int rangeIndex) {
+        return values[rangeIndex];
+    }
+
+    /**
+     * Получить текущую комбинацию в том же виде, что и Combiner.deconv()
+     *
+     * @return текущая комбинация
+     */
+    @NotNull
+    public List<Object> getCombination() {
+        List<Object> res = new ArrayList<>(values.length + 1);
+        for (Object value : values)
+            res.add(value);
+        return res;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "CombinationCursor{position}"
+     */
+    @Override
+    public String toString() {
+        return "CombinationCursor{" + getPosition() + '}';
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.aoklyunin.jCollections.combiners;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Разворачиватель идущих подряд номеров комбинаций. Каждая часть параллельного перебора
+ * получает свой разворачиватель, поэтому он может хранить состояние между вызовами
+ *
+ * @param <T> тип развёрнутой комбинации
+ */
+public interface CombinationDecoder<T> {
+    /**
+     * Установить разворачиватель на комбинацию
+     *
+     * @param combinationNumber номер комбинации
+     */
+    void seek(@NotNull BigInteger combinationNumber);
+
+    /**
+     * Развернуть текущую комбинацию и перейти к следующей
+     *
+     * @return развёрнутая комбинация
+     */
+    @NotNull
+    T next();
+
+    /**
+     * Построить разворачиватель, который разворачивает каждый номер заданной функцией
+     *
+     * @param deconv функция разворачивания номера комбинации
+     * @param <T>    тип развёрнутой комбинации
+     * @return разворачиватель
+     */
+    @NotNull
+    static <T> CombinationDecoder<T> of(@NotNull Function<BigInteger, T> deconv) {
+        Objects.requireNonNull(deconv);
+        return new CombinationDecoder<T>() {
+            /**
+             * Номер текущей комбинации
+             */
+            private BigInteger combinationNumber = BigInteger.ZERO;
+
+            @Override
+            public void seek(@NotNull BigInteger combinationNumber) {
+                this.combinationNumber = Objects.requireNonNull(combinationNumber);
+            }
+
+            @NotNull
+            @Override
+            public T next() {
+                T combination = deconv.apply(combinationNumber);
+                combinationNumber = combinationNumber.add(BigInteger.ONE);
+                return combination;
+            }
+        };
+    }
+
+    /**
+     * Построить разворачиватель комбинаций комбайнера, работающий через курсор CombinationCursor
+     *
+     * @param combiner комбайнер
+     * @return разворачиватель
+     */
+    @NotNull
+    static CombinationDecoder<List<Object>> of(@NotNull Combiner combiner) {
+        CombinationCursor cursor = new CombinationCursor(Objects.requireNonNull(combiner));
+        return new CombinationDecoder<List<Object>>() {
+            @Override
+            public void seek(@NotNull BigInteger combinationNumber) {
+                cursor.seek(combinationNumber);
+            }
+
+            @NotNull
+            @Override
+            public List<Object> next() {
+                List<Object> combination = cursor.getCombination();
+                cursor.next();
+                return combination;
+            }
+        };
+    }
+}
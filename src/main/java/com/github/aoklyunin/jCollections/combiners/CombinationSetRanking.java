@@ -0,0 +1,483 @@
+package com.github.aoklyunin.jCollections.combiners;
+
+import com.github.aoklyunin.jCollections.combiners.ranges.Range;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Нумератор наборов комбинаций GammaCombiner, которому не нужна таблица наборов.
+ * Каждой комбинации соответствует бит числа набора, наборы упорядочены по возрастанию их чисел,
+ * а номер набора равен количеству допустимых наборов с меньшим числом.
+ * <p>
+ * Количество допустимых дополнений набора комбинациями с номерами меньше q считается комбинаторно.
+ * Пусть h - старший разряд диапазона с неповторяемыми значениями. Все комбинации меньше q, кроме
+ * комбинаций, совпадающих с q во всех разрядах от h и старше, образуют прямое произведение значений
+ * диапазонов с неповторяемыми значениями, в котором каждое сочетание значений встречается одинаковое
+ * число раз (отдельно для значений разряда h меньше и не меньше, чем у q). Оставшиеся комбинации
+ * имеют одинаковое значение в разряде h, поэтому в набор может попасть не больше одной из них.
+ */
+public class CombinationSetRanking {
+    /**
+     * Кол-во комбинаций, из которых составляются наборы
+     */
+    private final long combinationCnt;
+    /**
+     * Количество комбинаций в каждом наборе, -1, если оно не ограничено
+     */
+    private final int combinationSetSize;
+    /**
+     * Основания разрядов номера комбинации (разряды занимают только разрешённые непустые диапазоны)
+     */
+    @NotNull
+    private final int[] digitRadixes;
+    /**
+     * Номер диапазона с неповторяемыми значениями для каждого разряда, -1, если значения разряда
+     * могут повторяться
+     */
+    @NotNull
+    private final int[] digitNonRepeatedIndexes;
+    /**
+     * Количество значений каждого диапазона с неповторяемыми значениями (1, если диапазон
+     * не занимает разряда и его значение у всех комбинаций одно и то же)
+     */
+    @NotNull
+    private final int[] valueCnts;
+    /**
+     * Разряд каждого диапазона с неповторяемыми значениями, -1, если диапазон не занимает разряда
+     */
+    @NotNull
+    private final int[] valueDigits;
+    /**
+     * Старший разряд диапазона с неповторяемыми значениями, -1, если таких разрядов нет
+     */
+    private final int topDigit;
+    /**
+     * Максимальное количество комбинаций в допустимом наборе
+     */
+    private final int maxCombinationSetSize;
+    /**
+     * Количество сочетаний значений повторяемых разрядов младше старшего разряда
+     * с неповторяемыми значениями
+     */
+    @NotNull
+    private final BigInteger lowRepeatedCnt;
+    /**
+     * Количество допустимых наборов
+     */
+    @NotNull
+    private final BigInteger combinationSetCnt;
+
+    /**
+     * Конструктор нумератора наборов комбинаций
+     *
+     * @param ranges                  список диапазонов комбайнера
+     * @param nonRepeatedRangeIndexes индексы диапазонов, в которых не должны повторяться значения
+     * @param combinationCnt          кол-во комбинаций, из которых составляются наборы
+     * @param combinationSetSize      количество комбинаций в каждом наборе, -1, если оно не ограничено
+     */
+    public CombinationSetRanking(
+            @NotNull List<Range> ranges, @NotNull List<Integer> nonRepeatedRangeIndexes,
+            long combinationCnt, int combinationSetSize
+    ) {
+        this.combinationCnt = combinationCnt;
+        this.combinationSetSize = combinationSetSize;
+        int digitCnt = 0;
+        for (Range range : Objects.requireNonNull(ranges)) {
+            if (!range.isEmpty() && range.isEnabled())
+                digitCnt++;
+        }
+        digitRadixes = new int[digitCnt];
+        digitNonRepeatedIndexes = new int[digitCnt];
+        valueCnts = new int[nonRepeatedRangeIndexes.size()];
+        valueDigits = new int[nonRepeatedRangeIndexes.size()];
+        Arrays.fill(valueCnts, 1);
+        Arrays.fill(valueDigits, -1);
+        Arrays.fill(digitNonRepeatedIndexes, -1);
+        digitCnt = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            Range range = ranges.get(i);
+            if (range.isEmpty() || !range.isEnabled())
+                continue;
+            digitRadixes[digitCnt] = range.getStepCnt() + 1;
+            int k = nonRepeatedRangeIndexes.indexOf(i);
+            if (k >= 0) {
+                digitNonRepeatedIndexes[digitCnt] = k;
+                valueCnts[k] = digitRadixes[digitCnt];
+                valueDigits[k] = digitCnt;
+            }
+            digitCnt++;
+        }
+        int top = -1;
+        for (int d = 0; d < digitRadixes.length; d++) {
+            if (digitNonRepeatedIndexes[d] >= 0)
+                top = d;
+        }
+        topDigit = top;
+        BigInteger cnt = BigInteger.ONE;
+        for (int d = 0; d < topDigit; d++) {
+            if (digitNonRepeatedIndexes[d] < 0)
+                cnt = cnt.multiply(BigInteger.valueOf(digitRadixes[d]));
+        }
+        lowRepeatedCnt = cnt;
+        int maxSize = Integer.MAX_VALUE;
+        for (int valueCnt : valueCnts)
+            maxSize = Math.min(maxSize, valueCnt);
+        maxCombinationSetSize = maxSize;
+        combinationSetCnt = countCompletions(newUsedValues(), new int[valueCnts.length], combinationCnt, 0);
+    }
+
+    /**
+     * Получить значение диапазона с неповторяемыми значениями в комбинации
+     *
+     * @param combinationNumber номер комбинации
+     * @param k                 номер диапазона в списке диапазонов с неповторяемыми значениями
+     * @return номер шага диапазона, 0, если диапазон не занимает разряда
+     */
+    public int getValue(long combinationNumber, int k) {
+        int digit = valueDigits[k];
+        if (digit < 0)
+            return 0;
+        for (int d = 0; d < digit; d++)
+            combinationNumber /= digitRadixes[d];
+        return (int) (combinationNumber % digitRadixes[digit]);
+    }
+
+    /**
+     * Получить количество допустимых наборов
+     *
+     * @return количество допустимых наборов
+     */
+    @NotNull
+    public BigInteger getCombinationSetCnt() {
+        return combinationSetCnt;
+    }
+
+    /**
+     * Получить номер набора по его числу
+     *
+     * @param combinationSetValue число набора
+     * @return номер набора, -1, если набор недопустим
+     */
+    @NotNull
+    public BigInteger rank(@NotNull BigInteger combinationSetValue) {
+        if (combinationSetValue.signum() < 0 || combinationSetValue.bitLength() > combinationCnt ||
+                combinationSetSize >= 0 && combinationSetValue.bitCount() != combinationSetSize)
+            return BigInteger.ONE.negate();
+        // номера комбинаций набора по убыванию
+        int[] combinationNumbers = new int[combinationSetValue.bitCount()];
+        BigInteger rest = combinationSetValue;
+        for (int i = combinationNumbers.length - 1; i >= 0; i--) {
+            combinationNumbers[i] = rest.getLowestSetBit();
+            rest = rest.clearBit(combinationNumbers[i]);
+        }
+        boolean[][] usedValues = newUsedValues();
+        int[] usedCnts = new int[valueCnts.length];
+        BigInteger rank = BigInteger.ZERO;
+        for (int i = 0; i < combinationNumbers.length; i++) {
+            // считаем наборы, совпадающие с данным в старших комбинациях и не содержащие текущую
+            rank = rank.add(countCompletions(usedValues, usedCnts, combinationNumbers[i], i));
+            if (!useValues(usedValues, usedCnts, combinationNumbers[i]))
+                return BigInteger.ONE.negate();
+        }
+        return rank;
+    }
+
+    /**
+     * Получить число набора по его номеру
+     *
+     * @param rank номер набора
+     * @return число набора
+     */
+    @NotNull
+    public BigInteger unrank(@NotNull BigInteger rank) {
+        if (rank.signum() < 0 || rank.compareTo(combinationSetCnt) >= 0)
+            throw new AssertionError("combination set number " + rank + " is out of range [0, " +
+                    combinationSetCnt + ")");
+        boolean[][] usedValues = newUsedValues();
+        int[] usedCnts = new int[valueCnts.length];
+        BigInteger combinationSetValue = BigInteger.ZERO;
+        long upper = combinationCnt;
+        for (int setSize = 0; ; setSize++) {
+            // номер не меньше количества наборов без младших комбинаций, если набор ещё не закончен
+            if (rank.compareTo(countCompletions(usedValues, usedCnts, 0, setSize)) < 0)
+                return combinationSetValue;
+            // ищем самую старшую комбинацию, перед которой помещается не больше rank наборов
+            long lo = 0;
+            long hi = upper - 1;
+            while (lo < hi) {
+                long mid = lo + (hi - lo + 1) / 2;
+                if (countCompletions(usedValues, usedCnts, mid, setSize).compareTo(rank) <= 0)
+                    lo = mid;
+                else
+                    hi = mid - 1;
+            }
+            rank = rank.subtract(countCompletions(usedValues, usedCnts, lo, setSize));
+            useValues(usedValues, usedCnts, lo);
+            combinationSetValue = combinationSetValue.setBit((int) lo);
+            upper = lo;
+        }
+    }
+
+    /**
+     * Создать флаги занятых значений диапазонов с неповторяемыми значениями
+     *
+     * @return флаги занятых значений
+     */
+    @NotNull
+    private boolean[][] newUsedValues() {
+        boolean[][] usedValues = new boolean[valueCnts.length][];
+        for (int k = 0; k < valueCnts.length; k++)
+            usedValues[k] = new boolean[valueCnts[k]];
+        return usedValues;
+    }
+
+    /**
+     * Занять значения комбинации
+     *
+     * @param usedValues        флаги занятых значений
+     * @param usedCnts          количества занятых значений
+     * @param combinationNumber номер комбинации
+     * @return флаг, были ли все значения комбинации свободны
+     */
+    private boolean useValues(@NotNull boolean[][] usedValues, @NotNull int[] usedCnts, long combinationNumber) {
+        boolean free = true;
+        for (int k = 0; k < valueCnts.length; k++) {
+            int value = getValue(combinationNumber, k);
+            free &= !usedValues[k][value];
+            usedValues[k][value] = true;
+            usedCnts[k]++;
+        }
+        return free;
+    }
+
+    /**
+     * Посчитать количество допустимых дополнений набора комбинациями с номерами меньше q
+     *
+     * @param usedValues флаги значений, занятых комбинациями набора
+     * @param usedCnts   количества значений, занятых комбинациями набора
+     * @param q          номер комбинации, меньше которого должны быть номера добавляемых комбинаций
+     * @param setSize    количество комбинаций в наборе
+     * @return количество дополнений
+     */
+    @NotNull
+    private BigInteger countCompletions(@NotNull boolean[][] usedValues, @NotNull int[] usedCnts, long q, int setSize) {
+        if (combinationSetSize < 0) {
+            if (valueCnts.length == 0)
+                return BigInteger.ONE.shiftLeft((int) q);
+            BigInteger sum = BigInteger.ZERO;
+            for (BigInteger cnt : countCompletionsBySize(usedValues, usedCnts, q))
+                sum = sum.add(cnt);
+            return sum;
+        }
+        int needed = combinationSetSize - setSize;
+        if (needed < 0)
+            return BigInteger.ZERO;
+        // без диапазонов с неповторяемыми значениями номер набора равен его номеру
+        // в колексикографическом порядке: сумме C(c_i, i) по комбинациям набора
+        if (valueCnts.length == 0)
+            return binomial(BigInteger.valueOf(q), needed);
+        BigInteger[] cnts = countCompletionsBySize(usedValues, usedCnts, q);
+        return needed < cnts.length ? cnts[needed] : BigInteger.ZERO;
+    }
+
+    /**
+     * Посчитать количество допустимых дополнений набора комбинациями с номерами меньше q
+     * для каждого количества добавляемых комбинаций
+     *
+     * @param usedValues флаги значений, занятых комбинациями набора
+     * @param usedCnts   количества значений, занятых комбинациями набора
+     * @param q          номер комбинации, меньше которого должны быть номера добавляемых комбинаций
+     * @return массив количеств дополнений, индекс - количество добавляемых комбинаций
+     */
+    @NotNull
+    private BigInteger[] countCompletionsBySize(@NotNull boolean[][] usedValues, @NotNull int[] usedCnts, long q) {
+        BigInteger[] cnts = new BigInteger[maxCombinationSetSize + 1];
+        Arrays.fill(cnts, BigInteger.ZERO);
+        // ни один диапазон с неповторяемыми значениями не занимает разряда: у всех комбинаций
+        // одни и те же значения, поэтому в набор можно добавить не больше одной комбинации
+        if (topDigit < 0) {
+            cnts[0] = BigInteger.ONE;
+            if (maxCombinationSetSize > 0 && isFree(usedValues))
+                cnts[1] = BigInteger.valueOf(q);
+            return cnts;
+        }
+        int[] qDigits = new int[digitRadixes.length];
+        for (int d = 0; d < digitRadixes.length; d++) {
+            qDigits[d] = (int) (q % digitRadixes[d]);
+            q /= digitRadixes[d];
+        }
+        // кол-во значений старших повторяемых разрядов, меньших, чем у q
+        BigInteger highCnt = BigInteger.ZERO;
+        for (int d = digitRadixes.length - 1; d > topDigit; d--)
+            highCnt = highCnt.multiply(BigInteger.valueOf(digitRadixes[d])).add(BigInteger.valueOf(qDigits[d]));
+        int topK = digitNonRepeatedIndexes[topDigit];
+        int topValue = qDigits[topDigit];
+        int lowFreeCnt = 0;
+        int highFreeCnt = 0;
+        for (int value = 0; value < valueCnts[topK]; value++) {
+            if (!usedValues[topK][value]) {
+                if (value < topValue)
+                    lowFreeCnt++;
+                else if (value > topValue)
+                    highFreeCnt++;
+            }
+        }
+        boolean topValueFree = !usedValues[topK][topValue];
+        int[] freeCnts = new int[valueCnts.length];
+        for (int k = 0; k < valueCnts.length; k++)
+            freeCnts[k] = valueCnts[k] - usedCnts[k];
+        // кратности сочетаний значений в прямом произведении
+        BigInteger lowMultiplicity = lowRepeatedCnt.multiply(highCnt.add(BigInteger.ONE));
+        BigInteger highMultiplicity = lowRepeatedCnt.multiply(highCnt);
+        addProductCounts(cnts, 0, BigInteger.ONE, freeCnts, topK, lowFreeCnt,
+                highFreeCnt + (topValueFree ? 1 : 0), lowMultiplicity, highMultiplicity);
+        if (topValueFree) {
+            // добавляем наборы с одной из комбинаций, совпадающих с q в разрядах от h и старше
+            BigInteger tailCnt = countTail(usedValues, usedCnts, qDigits);
+            if (tailCnt.signum() > 0) {
+                for (int k = 0; k < valueCnts.length; k++)
+                    freeCnts[k]--;
+                addProductCounts(cnts, 1, tailCnt, freeCnts, topK, lowFreeCnt, highFreeCnt,
+                        lowMultiplicity, highMultiplicity);
+            }
+        }
+        return cnts;
+    }
+
+    /**
+     * Добавить количества наборов из прямого произведения значений диапазонов с неповторяемыми значениями.
+     * Набор из t комбинаций выбирает по t свободных значений в каждом диапазоне, t! способами сопоставляет
+     * их значениям диапазона разряда h, а каждое сочетание значений встречается с заданной кратностью
+     *
+     * @param cnts             массив количеств дополнений
+     * @param shift            на сколько сдвинуть количество комбинаций в наборе
+     * @param factor           множитель количества наборов
+     * @param freeCnts         количества свободных значений диапазонов
+     * @param topK             номер диапазона разряда h
+     * @param lowFreeCnt       количество свободных значений разряда h с кратностью lowMultiplicity
+     * @param highFreeCnt      количество свободных значений разряда h с кратностью highMultiplicity
+     * @param lowMultiplicity  кратность сочетаний с младшими значениями разряда h
+     * @param highMultiplicity кратность сочетаний со старшими значениями разряда h
+     */
+    private void addProductCounts(
+            @NotNull BigInteger[] cnts, int shift, @NotNull BigInteger factor, @NotNull int[] freeCnts, int topK,
+            int lowFreeCnt, int highFreeCnt, @NotNull BigInteger lowMultiplicity, @NotNull BigInteger highMultiplicity
+    ) {
+        BigInteger factorial = BigInteger.ONE;
+        for (int t = 0; t + shift < cnts.length; t++) {
+            if (t > 0)
+                factorial = factorial.multiply(BigInteger.valueOf(t));
+            BigInteger product = factorial.pow(valueCnts.length - 1);
+            for (int k = 0; k < valueCnts.length; k++) {
+                if (k != topK)
+                    product = product.multiply(binomial(freeCnts[k], t));
+            }
+            BigInteger topCnt = BigInteger.ZERO;
+            for (int s = Math.max(0, t - highFreeCnt); s <= Math.min(t, lowFreeCnt); s++) {
+                topCnt = topCnt.add(binomial(lowFreeCnt, s).multiply(binomial(highFreeCnt, t - s))
+                        .multiply(lowMultiplicity.pow(s)).multiply(highMultiplicity.pow(t - s)));
+            }
+            product = product.multiply(topCnt);
+            if (product.signum() == 0 && t > 0)
+                return;
+            cnts[t + shift] = cnts[t + shift].add(factor.multiply(product));
+        }
+    }
+
+    /**
+     * Посчитать комбинации, которые меньше q и совпадают с q в разрядах от h и старше,
+     * значения которых свободны
+     *
+     * @param usedValues флаги значений, занятых комбинациями набора
+     * @param usedCnts   количества значений, занятых комбинациями набора
+     * @param qDigits    разряды q
+     * @return количество комбинаций
+     */
+    @NotNull
+    private BigInteger countTail(@NotNull boolean[][] usedValues, @NotNull int[] usedCnts, @NotNull int[] qDigits) {
+        if (!isFree(usedValues))
+            return BigInteger.ZERO;
+        // количества сочетаний свободных значений младших разрядов
+        BigInteger[] lowerCnts = new BigInteger[topDigit + 1];
+        lowerCnts[0] = BigInteger.ONE;
+        for (int d = 0; d < topDigit; d++) {
+            int k = digitNonRepeatedIndexes[d];
+            lowerCnts[d + 1] = lowerCnts[d].multiply(BigInteger.valueOf(
+                    k < 0 ? digitRadixes[d] : valueCnts[k] - usedCnts[k]
+            ));
+        }
+        BigInteger cnt = BigInteger.ZERO;
+        for (int d = topDigit - 1; d >= 0; d--) {
+            int k = digitNonRepeatedIndexes[d];
+            int lessCnt = qDigits[d];
+            if (k >= 0) {
+                lessCnt = 0;
+                for (int value = 0; value < qDigits[d]; value++) {
+                    if (!usedValues[k][value])
+                        lessCnt++;
+                }
+            }
+            cnt = cnt.add(lowerCnts[d].multiply(BigInteger.valueOf(lessCnt)));
+            if (k >= 0 && usedValues[k][qDigits[d]])
+                break;
+        }
+        return cnt;
+    }
+
+    /**
+     * Проверка, свободны ли значения диапазонов с неповторяемыми значениями, не занимающих разрядов
+     *
+     * @param usedValues флаги значений, занятых комбинациями набора
+     * @return флаг, свободны ли значения
+     */
+    private boolean isFree(@NotNull boolean[][] usedValues) {
+        for (int k = 0; k < valueCnts.length; k++) {
+            if (valueDigits[k] < 0 && usedValues[k][0])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Биномиальный коэффициент
+     *
+     * @param n из скольких элементов выбираем
+     * @param t сколько элементов выбираем
+     * @return биномиальный коэффициент, 0, если t больше n
+     */
+    @NotNull
+    private static BigInteger binomial(int n, int t) {
+        return binomial(BigInteger.valueOf(n), t);
+    }
+
+    /**
+     * Биномиальный коэффициент
+     *
+     * @param n из скольких элементов выбираем
+     * @param t сколько элементов выбираем
+     * @return биномиальный коэффициент, 0, если t больше n
+     */
+    @NotNull
+    static BigInteger binomial(@NotNull BigInteger n, int t) {
+        if (t < 0 || n.compareTo(BigInteger.valueOf(t)) < 0)
+            return BigInteger.ZERO;
+        BigInteger result = BigInteger.ONE;
+        for (int i = 0; i < t; i++)
+            result = result.multiply(n.subtract(BigInteger.valueOf(i))).divide(BigInteger.valueOf(i + 1));
+        return result;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "CombinationSetRanking{combinationCnt, combinationSetSize, combinationSetCnt}"
+     */
+    @Override
+    public String toString() {
+        return "CombinationSetRanking{" + combinationCnt + ", " + combinationSetSize + ", " + combinationSetCnt + '}';
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.aoklyunin.jCollections.combiners;
+
+/**
+ * Способ хранения наборов комбинаций GammaCombiner и его наследников
+ */
+public enum CombinationSetStorage {
+    /**
+     * Все допустимые наборы строятся при инициализации и хранятся в упорядоченном списке
+     */
+    TABLE,
+    /**
+     * Все допустимые наборы строятся при инициализации, но хранятся не в куче, а в файле,
+     * отображённом в память, см. MappedCombinationSetTable
+     */
+    MAPPED,
+    /**
+     * Наборы не хранятся, номер набора и набор по номеру рассчитываются комбинаторно
+     * классом CombinationSetRanking
+     */
+    RANKING
+}
@@ -0,0 +1,276 @@
+package com.github.aoklyunin.jCollections.combiners;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Упорядоченная по возрастанию таблица чисел наборов комбинаций, упакованная в массив long.
+ * Каждое число занимает stride слов массива, биты записаны начиная с младших, поэтому при
+ * числах не длиннее 64 бит таблица - это просто отсортированный массив long.
+ * Поиск номера набора по его числу выполняется двоичным поиском.
+ * Наследники могут хранить слова не в куче, для этого достаточно переопределить
+ * методы добавления чисел и getWord
+ */
+public class CombinationSetTable {
+    /**
+     * Кол-во слов long, которое занимает одно число
+     */
+    protected final int stride;
+    /**
+     * Слова чисел наборов
+     */
+    @NotNull
+    private long[] words;
+    /**
+     * Кол-во чисел в таблице
+     */
+    protected int size;
+
+    /**
+     * Конструктор пустой таблицы
+     *
+     * @param bitCnt кол-во комбинаций, из которых составляются наборы
+     */
+    public CombinationSetTable(int bitCnt) {
+        this.stride = Math.max(1, (bitCnt + Long.SIZE - 1) / Long.SIZE);
+        this.words = new long[0];
+    }
+
+    /**
+     * Добавить в конец таблицы числа из буфера, они должны быть больше чисел этой таблицы
+     *
+     * @param buffer буфер, из которого читаются слова чисел, кол-во оставшихся в нём слов
+     *               должно быть кратно кол-ву слов на число
+     */
+    void addWords(@NotNull LongBuffer buffer) {
+        int cnt = buffer.remaining() / stride;
+        ensureCapacity(cnt);
+        buffer.get(words, size * stride, cnt * stride);
+        size += cnt;
+    }
+
+    /**
+     * Записать слова чисел таблицы в буфер
+     *
+     * @param from   номер первого записываемого числа
+     * @param cnt    кол-во записываемых чисел
+     * @param buffer буфер, в который записываются слова чисел
+     */
+    void putWords(int from, int cnt, @NotNull LongBuffer buffer) {
+        buffer.put(words, from * stride, cnt * stride);
+    }
+
+    /**
+     * Добавить число набора в конец таблицы, числа должны добавляться по возрастанию
+     *
+     * @param value биты числа набора, записанные начиная с младших
+     */
+    void add(@NotNull long[] value) {
+        ensureCapacity(1);
+        System.arraycopy(value, 0, words, size * stride, Math.min(value.length, stride));
+        size++;
+    }
+
+    /**
+     * Добавить число набора в конец таблицы, числа должны добавляться по возрастанию
+     *
+     * @param value число набора
+     */
+    void add(long value) {
+        ensureCapacity(1);
+        words[size * stride] = value;
+        size++;
+    }
+
+    /**
+     * Добавить в конец таблицы все числа другой таблицы, её числа должны быть больше чисел этой таблицы
+     *
+     * @param table таблица с тем же кол-вом слов на число
+     */
+    void addAll(@NotNull CombinationSetTable table) {
+        checkStride(table);
+        ensureCapacity(table.size);
+        if (table.getClass() == CombinationSetTable.class)
+            System.arraycopy(table.words, 0, words, size * stride, table.size * stride);
+        else {
+            for (int i = 0; i < table.size * stride; i++)
+                words[size * stride + i] = table.getWord(i);
+        }
+        size += table.size;
+    }
+
+    /**
+     * Проверить, что числа другой таблицы занимают столько же слов
+     *
+     * @param table таблица
+     */
+    protected void checkStride(@NotNull CombinationSetTable table) {
+        if (table.stride != stride)
+            throw new AssertionError("table stride " + table.stride + " differs from " + stride);
+    }
+
+    /**
+     * Увеличить массив слов, если в нём нет места для заданного кол-ва чисел
+     *
+     * @param cnt кол-во добавляемых чисел
+     */
+    private void ensureCapacity(int cnt) {
+        long required = (size + (long) cnt) * stride;
+        if (required <= words.length)
+            return;
+        if (required > Integer.MAX_VALUE - 8)
+            throw new AssertionError(
+                    "combination set table is too large, use CombinationSetStorage.MAPPED or RANKING"
+            );
+        words = Arrays.copyOf(words, (int) Math.min(Math.max(required, words.length * 2L), Integer.MAX_VALUE - 8));
+    }
+
+    /**
+     * Освободить неиспользуемую часть массива слов
+     */
+    void trimToSize() {
+        words = Arrays.copyOf(words, size * stride);
+    }
+
+    /**
+     * Получить слово чисел таблицы
+     *
+     * @param wordIndex номер слова, у числа с номером index слова идут с номера index * stride
+     * @return слово
+     */
+    protected long getWord(long wordIndex) {
+        return words[(int) wordIndex];
+    }
+
+    /**
+     * Получить кол-во чисел в таблице
+     *
+     * @return кол-во чисел в таблице
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Получить число набора
+     *
+     * @param index номер набора
+     * @return число набора
+     */
+    @NotNull
+    public BigInteger get(int index) {
+        long[] value = new long[stride];
+        getWords(index, value);
+        return AlphaCombiner.fromWords(value);
+    }
+
+    /**
+     * Записать биты числа набора в массив
+     *
+     * @param index номер набора
+     * @param value массив длиной не меньше stride, в который записываются биты числа, начиная с младших
+     */
+    public void getWords(int index, @NotNull long[] value) {
+        checkIndex(index);
+        for (int i = 0; i < stride; i++)
+            value[i] = getWord((long) index * stride + i);
+    }
+
+    /**
+     * Проверить номер набора
+     *
+     * @param index номер набора
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    /**
+     * Найти номер набора по его числу двоичным поиском
+     *
+     * @param value число набора
+     * @return номер набора, -1, если числа нет в таблице
+     */
+    public int indexOf(@NotNull BigInteger value) {
+        if (value.signum() < 0 || value.bitLength() > stride * Long.SIZE)
+            return -1;
+        long[] key = new long[stride];
+        for (int i = 0; i < stride; i++)
+            key[i] = value.shiftRight(i * Long.SIZE).longValue();
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(mid, key);
+            if (cmp < 0)
+                lo = mid + 1;
+            else if (cmp > 0)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * Сравнить число набора с ключом
+     *
+     * @param index номер набора
+     * @param key   биты ключа, записанные начиная с младших
+     * @return результат сравнения числа набора с ключом
+     */
+    private int compare(int index, @NotNull long[] key) {
+        for (int i = stride - 1; i >= 0; i--) {
+            int cmp = Long.compareUnsigned(getWord((long) index * stride + i), key[i]);
+            if (cmp != 0)
+                return cmp;
+        }
+        return 0;
+    }
+
+    /**
+     * Получить кол-во слов long, которое занимает одно число
+     *
+     * @return кол-во слов long, которое занимает одно число
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "CombinationSetTable{size, stride}"
+     */
+    @Override
+    public String toString() {
+        return "CombinationSetTable{" + size + ", " + stride + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CombinationSetTable)) return false;
+
+        CombinationSetTable that = (CombinationSetTable) o;
+
+        if (stride != that.stride || size != that.size) return false;
+        for (long i = 0; i < (long) size * stride; i++) {
+            if (getWord(i) != that.getWord(i))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = stride;
+        for (long i = 0; i < (long) size * stride; i++)
+            result = 31 * result + Long.hashCode(getWord(i));
+        return result;
+    }
+}
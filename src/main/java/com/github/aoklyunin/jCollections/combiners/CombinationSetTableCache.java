@@ -0,0 +1,232 @@
+package com.github.aoklyunin.jCollections.combiners;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Дисковый кэш таблиц наборов комбинаций. По умолчанию выключен, включается заданием папки,
+ * в которой хранятся файлы таблиц. Файл таблицы называется по хэшу всего, от чего зависит таблица:
+ * типа переборщика, кол-ва комбинаций в наборе и значений диапазонов с неповторяемыми значениями.
+ * Хэш записан и в заголовок файла, при загрузке файл отображается в память и проверяется,
+ * а если он не подходит, то таблица строится заново и файл перезаписывается
+ */
+public class CombinationSetTableCache {
+    /**
+     * Сигнатура файла таблицы
+     */
+    private static final long MAGIC = 0x6A436F6C43535442L;
+    /**
+     * Версия формата файла таблицы
+     */
+    private static final int VERSION = 1;
+    /**
+     * Размер заголовка файла таблицы в байтах: сигнатура, версия, кол-во комбинаций,
+     * кол-во слов на число, кол-во чисел и хэш, дополненные до границы слова
+     */
+    private static final int HEADER_SIZE = 64;
+    /**
+     * Наибольший размер одного отображаемого в память участка файла в байтах
+     */
+    private static final int MAP_CHUNK_SIZE = 1 << 30;
+    /**
+     * Алгоритм хэша
+     */
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    /**
+     * Папка кэша, null, если кэш выключен
+     */
+    @Nullable
+    private static volatile Path directory;
+
+    /**
+     * Закрытый конструктор
+     */
+    private CombinationSetTableCache() {
+    }
+
+    /**
+     * Получить папку кэша
+     *
+     * @return папка кэша, null, если кэш выключен
+     */
+    @Nullable
+    public static Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Задать папку кэша
+     *
+     * @param directory папка кэша, null, чтобы выключить кэш
+     */
+    public static void setDirectory(@Nullable Path directory) {
+        CombinationSetTableCache.directory = directory;
+    }
+
+    /**
+     * Получить хэш параметров таблицы
+     *
+     * @param combinerClass                   класс переборщика
+     * @param combinationSetSize              кол-во комбинаций в каждом наборе, -1, если оно не ограничено
+     * @param bitCnt                          кол-во комбинаций, из которых составляются наборы
+     * @param nonRepeatedRangeValueBitOffsets номера первых битов масок значений диапазонов с неповторяемыми
+     *                                        значениями, последний элемент - общее кол-во битов масок
+     * @param nonRepeatedRangeValues          значения диапазонов с неповторяемыми значениями по номеру комбинации
+     * @return хэш параметров таблицы
+     */
+    @NotNull
+    static byte[] getKey(
+            @NotNull Class<?> combinerClass, int combinationSetSize, int bitCnt,
+            @NotNull int[] nonRepeatedRangeValueBitOffsets, @NotNull int[] nonRepeatedRangeValues
+    ) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+        digest.update(combinerClass.getName().getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * (
+                4 + nonRepeatedRangeValueBitOffsets.length + nonRepeatedRangeValues.length
+        ));
+        buffer.putInt(VERSION).putInt(combinationSetSize).putInt(bitCnt);
+        buffer.putInt(nonRepeatedRangeValueBitOffsets.length);
+        buffer.asIntBuffer().put(nonRepeatedRangeValueBitOffsets).put(nonRepeatedRangeValues);
+        digest.update(buffer.array());
+        return digest.digest();
+    }
+
+    /**
+     * Получить файл таблицы
+     *
+     * @param directory папка кэша
+     * @param key       хэш параметров таблицы
+     * @return файл таблицы
+     */
+    @NotNull
+    private static Path getPath(@NotNull Path directory, @NotNull byte[] key) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 16; i++)
+            name.append(String.format("%02x", key[i]));
+        return directory.resolve(name.append(".cst").toString());
+    }
+
+    /**
+     * Получить размер отображаемого в память участка файла, вмещающего целое число чисел
+     *
+     * @param stride кол-во слов long, которое занимает одно число
+     * @return размер участка в байтах
+     */
+    private static long getChunkSize(int stride) {
+        long numberSize = (long) stride * Long.BYTES;
+        return Math.max(1, MAP_CHUNK_SIZE / numberSize) * numberSize;
+    }
+
+    /**
+     * Загрузить таблицу из кэша
+     *
+     * @param key    хэш параметров таблицы
+     * @param bitCnt кол-во комбинаций, из которых составляются наборы
+     * @param mapped флаг, читать ли таблицу прямо из отображённого в память файла, не копируя её в кучу
+     * @return таблица, null, если кэш выключен, файла нет или он не подходит
+     */
+    @Nullable
+    static CombinationSetTable load(@NotNull byte[] key, int bitCnt, boolean mapped) {
+        Path directory = CombinationSetTableCache.directory;
+        if (directory == null)
+            return null;
+        Path path = getPath(directory, key);
+        if (!Files.isRegularFile(path))
+            return null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE)
+                return null;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (buffer.getLong() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != bitCnt)
+                return null;
+            int stride = buffer.getInt();
+            int size = buffer.getInt();
+            byte[] fileKey = new byte[key.length];
+            buffer.get(fileKey);
+            if (!Arrays.equals(fileKey, key) || stride != new CombinationSetTable(bitCnt).getStride() || size < 0 ||
+                    fileSize != HEADER_SIZE + (long) size * stride * Long.BYTES)
+                return null;
+            if (mapped)
+                return new MappedCombinationSetTable(bitCnt, path, HEADER_SIZE, size);
+            // отображаем файл в память участками из целого числа чисел
+            CombinationSetTable table = new CombinationSetTable(bitCnt);
+            long chunkSize = getChunkSize(stride);
+            for (long position = HEADER_SIZE; position < fileSize; position += chunkSize) {
+                table.addWords(channel.map(
+                        FileChannel.MapMode.READ_ONLY, position, Math.min(chunkSize, fileSize - position)
+                ).asLongBuffer());
+            }
+            table.trimToSize();
+            return table;
+        } catch (IOException e) {
+            // нечитаемый файл - такой же промах кэша, как и его отсутствие: таблица строится заново
+            return null;
+        }
+    }
+
+    /**
+     * Сохранить таблицу в кэш. Файл сначала пишется во временный, а потом переименовывается,
+     * поэтому другие процессы не увидят недописанный файл. Ошибка записи не пробрасывается,
+     * а только оставляет таблицу вне кэша
+     *
+     * @param key    хэш параметров таблицы
+     * @param bitCnt кол-во комбинаций, из которых составляются наборы
+     * @param table  таблица
+     */
+    static void store(@NotNull byte[] key, int bitCnt, @NotNull CombinationSetTable table) {
+        Path directory = CombinationSetTableCache.directory;
+        if (directory == null)
+            return;
+        Path path = getPath(directory, key);
+        try {
+            Files.createDirectories(directory);
+            Path tmpPath = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(
+                        tmpPath, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+                )) {
+                    MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+                    header.putLong(MAGIC).putInt(VERSION).putInt(bitCnt);
+                    header.putInt(table.getStride()).putInt(table.size()).put(key);
+                    header.force();
+                    long chunkSize = getChunkSize(table.getStride());
+                    int chunkCnt = (int) (chunkSize / ((long) table.getStride() * Long.BYTES));
+                    for (int from = 0; from < table.size(); from += chunkCnt) {
+                        int cnt = Math.min(chunkCnt, table.size() - from);
+                        MappedByteBuffer buffer = channel.map(
+                                FileChannel.MapMode.READ_WRITE,
+                                HEADER_SIZE + (long) from * table.getStride() * Long.BYTES,
+                                (long) cnt * table.getStride() * Long.BYTES
+                        );
+                        table.putWords(from, cnt, buffer.asLongBuffer());
+                        buffer.force();
+                    }
+                }
+                Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmpPath);
+            }
+        } catch (IOException e) {
+            // кэш необязателен: если файл не записался, таблица просто будет построена заново в следующий раз
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.github.aoklyunin.jCollections.combiners;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigInteger;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Сплитератор полуинтервала номеров комбинаций [from, to). При разделении интервал делится
+ * пополам, а номера разворачиваются лениво: каждая часть получает свой разворачиватель
+ * при первом обращении к элементам.
+ * Пока длина интервала помещается в long, сплитератор имеет характеристики SIZED и SUBSIZED
+ *
+ * @param <T> тип развёрнутой комбинации
+ */
+public class CombinationSpliterator<T> implements Spliterator<T> {
+    /**
+     * Фабрика разворачивателей номеров комбинаций
+     */
+    @NotNull
+    private final Supplier<CombinationDecoder<T>> decoderFactory;
+    /**
+     * Разворачиватель номеров этой части перебора
+     */
+    @Nullable
+    private CombinationDecoder<T> decoder;
+    /**
+     * Флаг, установлен ли разворачиватель на номер pos
+     */
+    private boolean decoderReady;
+    /**
+     * Начало отсчёта номеров, если длина интервала помещается в long
+     */
+    @Nullable
+    private BigInteger base;
+    /**
+     * Смещение текущего номера от начала отсчёта
+     */
+    private long pos;
+    /**
+     * Смещение конца интервала от начала отсчёта
+     */
+    private long end;
+    /**
+     * Текущий номер, если длина интервала не помещается в long
+     */
+    @Nullable
+    private BigInteger bigPos;
+    /**
+     * Конец интервала, если длина интервала не помещается в long
+     */
+    @Nullable
+    private BigInteger bigEnd;
+
+    /**
+     * Конструктор сплитератора номеров комбинаций
+     *
+     * @param from           первый номер комбинации
+     * @param to             номер комбинации, следующий за последним
+     * @param decoderFactory фабрика разворачивателей номеров комбинаций
+     */
+    public CombinationSpliterator(
+            @NotNull BigInteger from, @NotNull BigInteger to, @NotNull Supplier<CombinationDecoder<T>> decoderFactory
+    ) {
+        this.decoderFactory = Objects.requireNonNull(decoderFactory);
+        setInterval(Objects.requireNonNull(from), Objects.requireNonNull(to));
+    }
+
+    /**
+     * Конструктор части сплитератора с длиной, помещающейся в long
+     *
+     * @param base           начало отсчёта номеров
+     * @param pos            смещение первого номера от начала отсчёта
+     * @param end            смещение конца интервала от начала отсчёта
+     * @param decoderFactory фабрика разворачивателей номеров комбинаций
+     */
+    private CombinationSpliterator(
+            @NotNull BigInteger base, long pos, long end, @NotNull Supplier<CombinationDecoder<T>> decoderFactory
+    ) {
+        this.decoderFactory = decoderFactory;
+        this.base = base;
+        this.pos = pos;
+        this.end = end;
+    }
+
+    /**
+     * Задать интервал номеров
+     *
+     * @param from первый номер комбинации
+     * @param to   номер комбинации, следующий за последним
+     */
+    private void setInterval(@NotNull BigInteger from, @NotNull BigInteger to) {
+        decoderReady = false;
+        BigInteger length = to.subtract(from).max(BigInteger.ZERO);
+        if (length.bitLength() < Long.SIZE) {
+            base = from;
+            pos = 0;
+            end = length.longValue();
+            bigPos = null;
+            bigEnd = null;
+        } else {
+            base = null;
+            bigPos = from;
+            bigEnd = to;
+        }
+    }
+
+    /**
+     * Получить разворачиватель, установленный на текущий номер
+     *
+     * @return разворачиватель
+     */
+    @NotNull
+    private CombinationDecoder<T> getDecoder() {
+        if (decoder == null)
+            decoder = decoderFactory.get();
+        if (!decoderReady) {
+            decoder.seek(base != null ? base.add(BigInteger.valueOf(pos)) : bigPos);
+            decoderReady = true;
+        }
+        return decoder;
+    }
+
+    @Override
+    public boolean tryAdvance(@NotNull Consumer<? super T> action) {
+        if (base != null) {
+            if (pos >= end)
+                return false;
+            action.accept(getDecoder().next());
+            pos++;
+            return true;
+        }
+        action.accept(getDecoder().next());
+        setInterval(bigPos.add(BigInteger.ONE), bigEnd);
+        decoderReady = true;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(@NotNull Consumer<? super T> action) {
+        while (base == null)
+            tryAdvance(action);
+        if (pos >= end)
+            return;
+        CombinationDecoder<T> decoder = getDecoder();
+        for (; pos < end; pos++)
+            action.accept(decoder.next());
+    }
+
+    @Nullable
+    @Override
+    public Spliterator<T> trySplit() {
+        if (base == null) {
+            BigInteger mid = bigPos.add(bigEnd.subtract(bigPos).shiftRight(1));
+            CombinationSpliterator<T> prefix = new CombinationSpliterator<>(bigPos, mid, decoderFactory);
+            setInterval(mid, bigEnd);
+            return prefix;
+        }
+        if (end - pos < 2)
+            return null;
+        long mid = pos + (end - pos) / 2;
+        CombinationSpliterator<T> prefix = new CombinationSpliterator<>(base, pos, mid, decoderFactory);
+        pos = mid;
+        decoderReady = false;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return base != null ? end - pos : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | IMMUTABLE | NONNULL | (base != null ? SIZED | SUBSIZED : 0);
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "CombinationSpliterator{[from, to)}"
+     */
+    @Override
+    public String toString() {
+        if (base != null)
+            return "CombinationSpliterator{[" + base.add(BigInteger.valueOf(pos)) + ", " +
+                    base.add(BigInteger.valueOf(end)) + ")}";
+        return "CombinationSpliterator{[" + bigPos + ", " + bigEnd + ")}";
+    }
+}
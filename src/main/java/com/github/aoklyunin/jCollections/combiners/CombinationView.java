@@ -0,0 +1,186 @@
+package com.github.aoklyunin.jCollections.combiners;
+
+import com.github.aoklyunin.jCollections.combiners.ranges.Range;
+import com.github.aoklyunin.jCollections.combiners.ranges.primitive.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Изменяемое представление комбинации, которое комбайнер перезаполняет на месте.
+ * Создаётся один раз на обработчик, значения читаются по дескрипторам диапазонов,
+ * полученным заранее методом Combiner.getRangeHandle(), поэтому чтение не требует
+ * ни поиска по имени, ни создания объектов
+ */
+public class CombinationView {
+    /**
+     * Диапазоны комбайнера
+     */
+    @NotNull
+    private final Range[] ranges;
+    /**
+     * Номера шагов диапазонов в текущей комбинации
+     */
+    @NotNull
+    final int[] steps;
+    /**
+     * Значения запрещённых диапазонов на момент заполнения представления, null для
+     * разрешённых и пустых диапазонов. Номер шага запрещённого диапазона не задаёт
+     * его значение точно, поэтому значение берётся из диапазона
+     */
+    @NotNull
+    private final Object[] currentValues;
+    /**
+     * Номер текущей комбинации, -1, если представление ещё не заполнено
+     */
+    long position = -1;
+
+    /**
+     * Конструктор представления комбинации
+     *
+     * @param combiner комбайнер, комбинации которого будут записываться в представление
+     */
+    public CombinationView(@NotNull Combiner combiner) {
+        this.ranges = Objects.requireNonNull(combiner).ranges.toArray(new Range[0]);
+        this.steps = new int[ranges.length];
+        this.currentValues = new Object[ranges.length];
+        fillCurrentValues();
+    }
+
+    /**
+     * Запомнить значения запрещённых диапазонов, вызывается при каждом заполнении представления
+     */
+    void fillCurrentValues() {
+        for (int i = 0; i < ranges.length; i++) {
+            Range range = ranges[i];
+            currentValues[i] = range.isEmpty() || range.isEnabled() ? null : range.getCurrentValue();
+        }
+    }
+
+    /**
+     * Получить номер текущей комбинации
+     *
+     * @return номер текущей комбинации, -1, если представление ещё не заполнено
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Получить номер шага диапазона
+     *
+     * @param rangeHandle дескриптор диапазона
+     * @return номер шага
+     */
+    public int getStep(int rangeHandle) {
+        return steps[rangeHandle];
+    }
+
+    /**
+     * Получить значение целочисленного диапазона
+     *
+     * @param rangeHandle дескриптор диапазона
+     * @return значение диапазона
+     */
+    public int getInt(int rangeHandle) {
+        Object currentValue = currentValues[rangeHandle];
+        if (currentValue != null)
+            return ((Number) currentValue).intValue();
+        return ((IntRange) ranges[rangeHandle]).getInt(steps[rangeHandle]);
+    }
+
+    /**
+     * Получить значение диапазона long
+     *
+     * @param rangeHandle дескриптор диапазона
+     * @return значение диапазона
+     */
+    public long getLong(int rangeHandle) {
+        Object currentValue = currentValues[rangeHandle];
+        if (currentValue != null)
+            return ((Number) currentValue).longValue();
+        return ((LongRange) ranges[rangeHandle]).getLong(steps[rangeHandle]);
+    }
+
+    /**
+     * Получить значение вещественного диапазона
+     *
+     * @param rangeHandle дескриптор диапазона
+     * @return значение диапазона
+     */
+    public double getDouble(int rangeHandle) {
+        Object currentValue = currentValues[rangeHandle];
+        if (currentValue != null)
+            return ((Number) currentValue).doubleValue();
+        return ((DoubleRange) ranges[rangeHandle]).getDouble(steps[rangeHandle]);
+    }
+
+    /**
+     * Получить значение диапазона float
+     *
+     * @param rangeHandle дескриптор диапазона
+     * @return значение диапазона
+     */
+    public float getFloat(int rangeHandle) {
+        Object currentValue = currentValues[rangeHandle];
+        if (currentValue != null)
+            return ((Number) currentValue).floatValue();
+        return ((FloatRange) ranges[rangeHandle]).getFloat(steps[rangeHandle]);
+    }
+
+    /**
+     * Получить значение символьного диапазона
+     *
+     * @param rangeHandle дескриптор диапазона
+     * @return значение диапазона
+     */
+    public char getChar(int rangeHandle) {
+        Object currentValue = currentValues[rangeHandle];
+        if (currentValue != null)
+            return (Character) currentValue;
+        return ((CharRange) ranges[rangeHandle]).getChar(steps[rangeHandle]);
+    }
+
+    /**
+     * Получить значение диапазона в том же виде, что и Combiner.deconv()
+     *
+     * @param rangeHandle дескриптор диапазона
+     * @return значение диапазона
+     */
+    public Object getValue(int rangeHandle) {
+        Range range = ranges[rangeHandle];
+        if (range.isEmpty())
+            return null;
+        if (!range.isEnabled())
+            return currentValues[rangeHandle];
+        return range.getValue(steps[rangeHandle]);
+    }
+
+    /**
+     * Построить словарь комбинации в том же виде, что и Combiner.getNextAsDict()
+     *
+     * @return словарь комбинации
+     */
+    @NotNull
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < ranges.length; i++) {
+            map.put(ranges[i].getName(), getValue(i));
+        }
+        map.put("combinationLoopPos", BigInteger.valueOf(position));
+        return map;
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "CombinationView{position}"
+     */
+    @Override
+    public String toString() {
+        return "CombinationView{" + position + '}';
+    }
+}
@@ -3,6 +3,8 @@ package com.github.aoklyunin.jCollections.combiners;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.aoklyunin.jCollections.Async;
+import com.github.aoklyunin.jCollections.AtomicBigInteger;
 import com.github.aoklyunin.jCollections.combiners.ranges.EmptyRange;
 import com.github.aoklyunin.jCollections.combiners.ranges.Range;
 import com.github.aoklyunin.jCollections.combiners.ranges.RangeBuilder;
@@ -16,6 +18,11 @@ import org.jetbrains.annotations.NotNull;
 import java.math.BigInteger;
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Класс комбайнера(перебирает все комбинации имеют по одному любому значению из каждого диапазона)
@@ -45,6 +52,29 @@ public class Combiner {
      */
     @NotNull
     private Map<String, Integer> rangeDict;
+    /**
+     * Флаг, помещается ли свёртка всех диапазонов в long: в этом случае номера комбинаций
+     * сворачиваются и разворачиваются без BigInteger
+     */
+    @JsonIgnore
+    boolean longCodec;
+    /**
+     * Курсор, которым getNextAsList() и getNextAsDict() перебирают комбинации
+     */
+    @JsonIgnore
+    CombinationCursor loopCursor;
+    /**
+     * Количество номеров комбинаций, выданных пачками, если количество комбинаций помещается в long
+     */
+    @NotNull
+    @JsonIgnore
+    private final AtomicLong claimedCnt = new AtomicLong();
+    /**
+     * Количество номеров комбинаций, выданных пачками, если количество комбинаций не помещается в long
+     */
+    @NotNull
+    @JsonIgnore
+    private final AtomicBigInteger bigClaimedCnt = new AtomicBigInteger(BigInteger.ZERO);
 
     /**
      * Конструктор хранителя интервалов
@@ -134,10 +164,39 @@ public class Combiner {
      * инициализировать переборщик
      */
     public void initCombinationLoop() {
-        combinationLoopPos = BigInteger.ZERO;
+        resetCombinationLoop();
+        initLongCodec();
         calculateCombinationCnt();
     }
 
+    /**
+     * Вернуть перебор комбинаций в начало
+     */
+    protected void resetCombinationLoop() {
+        combinationLoopPos = BigInteger.ZERO;
+        loopCursor = null;
+        claimedCnt.set(0);
+        bigClaimedCnt.set(BigInteger.ZERO);
+    }
+
+    /**
+     * Проверить, помещается ли свёртка всех диапазонов в long, и
+     * выбрать соответствующий способ свёртки
+     */
+    protected void initLongCodec() {
+        long convCnt = 1;
+        for (Range range : ranges) {
+            if (!range.isEmpty() && range.isEnabled()) {
+                if (convCnt > Long.MAX_VALUE / (range.getStepCnt() + 1)) {
+                    longCodec = false;
+                    return;
+                }
+                convCnt *= range.getStepCnt() + 1;
+            }
+        }
+        longCodec = true;
+    }
+
     /**
      * Рассчитать количество комбинаций
      */
@@ -158,11 +217,13 @@ public class Combiner {
         // нужно переходить к следующему
         if (this.combinationLoopPos.compareTo(combinationCnt) >= 0)
             return new ArrayList<>();
-        List<Object> objects = deconv(combinationLoopPos);
+        CombinationCursor cursor = getLoopCursor();
+        List<Object> objects = cursor.getCombination();
         objects.add(combinationLoopPos);
+        cursor.next();
         combinationLoopPos = combinationLoopPos.add(BigInteger.ONE);
         // System.out.println(Thread.currentThread().getName()+" "+"getNext from end");
-        return new ArrayList<>(objects);
+        return objects;
     }
 
     /**
@@ -179,16 +240,156 @@ public class Combiner {
         Map<String, Object> map = new HashMap<>();
         if (this.combinationLoopPos.compareTo(combinationCnt) >= 0)
             return map;
-        List<Object> objects = deconv(combinationLoopPos);
+        CombinationCursor cursor = getLoopCursor();
         for (int i = 0; i < ranges.size(); i++) {
-            map.put(ranges.get(i).getName(), objects.get(i));
+            map.put(ranges.get(i).getName(), cursor.getValue(i));
         }
         map.put("combinationLoopPos", combinationLoopPos);
+        cursor.next();
         combinationLoopPos = combinationLoopPos.add(BigInteger.ONE);
         // System.out.println(Thread.currentThread().getName()+" "+"getNext from end");
         return map;
     }
 
+    /**
+     * Атомарно забрать пачку из n следующих номеров комбинаций. Пачки выдаются без блокировок,
+     * поэтому каждый поток может забирать свою пачку и разворачивать её номера
+     * курсором CombinationCursor независимо от остальных. Счётчик выданных номеров
+     * не связан с перебором getNextAsList() и getNextAsDict()
+     *
+     * @param n максимальное количество номеров в пачке
+     * @return пачка номеров комбинаций, пустая, если комбинации закончились
+     */
+    @NotNull
+    public CombinationBatch claimBatch(int n) {
+        if (n <= 0)
+            throw new IllegalArgumentException("claimBatch(): batch size must be positive, but it is " + n);
+        if (combinationCnt.bitLength() < Long.SIZE) {
+            long cnt = combinationCnt.longValue();
+            for (; ; ) {
+                long from = claimedCnt.get();
+                if (from >= cnt)
+                    return new CombinationBatch(cnt, cnt);
+                long to = cnt - from <= n ? cnt : from + n;
+                if (claimedCnt.compareAndSet(from, to))
+                    return new CombinationBatch(from, to);
+            }
+        }
+        // счётчик может уйти за combinationCnt, номера за ним отбрасываются
+        BigInteger from = bigClaimedCnt.getAndAdd(n);
+        if (from.compareTo(combinationCnt) >= 0)
+            return new CombinationBatch(combinationCnt, combinationCnt);
+        return new CombinationBatch(from, from.add(BigInteger.valueOf(n)).min(combinationCnt));
+    }
+
+    /**
+     * Забрать следующий номер комбинации из того же счётчика, что и claimBatch(), и
+     * записать комбинацию в представление. Метод не берёт блокировок и не создаёт объектов
+     *
+     * @param view представление комбинации
+     * @return флаг, получилось ли забрать комбинацию, false, если комбинации закончились
+     */
+    public boolean getNextInto(@NotNull CombinationView view) {
+        if (combinationCnt.bitLength() >= Long.SIZE)
+            throw new AssertionError("combination count of " + this + " does not fit in long");
+        long cnt = combinationCnt.longValue();
+        for (; ; ) {
+            long combinationNumber = claimedCnt.get();
+            if (combinationNumber >= cnt)
+                return false;
+            if (claimedCnt.compareAndSet(combinationNumber, combinationNumber + 1)) {
+                deconvInto(combinationNumber, view);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Получить сплитератор всех комбинаций комбайнера в том виде, в каком их возвращает deconv()
+     *
+     * @return сплитератор всех комбинаций
+     */
+    @NotNull
+    public Spliterator<List<Object>> spliterator() {
+        return new CombinationSpliterator<>(BigInteger.ZERO, combinationCnt, () -> CombinationDecoder.of(this));
+    }
+
+    /**
+     * Получить последовательный поток всех комбинаций комбайнера
+     *
+     * @return поток всех комбинаций
+     */
+    @NotNull
+    public Stream<List<Object>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Получить параллельный поток всех комбинаций комбайнера
+     *
+     * @return параллельный поток всех комбинаций
+     */
+    @NotNull
+    public Stream<List<Object>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Перебрать все комбинации обработчиком, который большую часть времени ждёт ввода-вывода
+     * (симулятора, файлов), с не более чем Async.DEFAULT_MAX_CONCURRENCY одновременными отрезками
+     *
+     * @param action обработчик комбинации
+     */
+    public void blockingForEach(@NotNull Consumer<List<Object>> action) {
+        blockingForEach(action, Async.DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Перебрать все комбинации обработчиком, который большую часть времени ждёт ввода-вывода
+     * (симулятора, файлов). Комбинации обрабатываются в виртуальных потоках, если среда
+     * выполнения их поддерживает, см. Async.blockingForEachLong()
+     *
+     * @param action         обработчик комбинации
+     * @param maxConcurrency наибольшее кол-во одновременно выполняемых отрезков
+     */
+    public void blockingForEach(@NotNull Consumer<List<Object>> action, int maxConcurrency) {
+        Objects.requireNonNull(action);
+        if (combinationCnt.bitLength() >= Long.SIZE)
+            throw new AssertionError("combination count of " + this + " does not fit in long");
+        Async.blockingForEachLong(combinationCnt.longValue(), i -> action.accept(deconv(i)), maxConcurrency);
+    }
+
+    /**
+     * Получить поток, разворачивающий все номера комбинаций от нуля до combinationCnt заданной функцией
+     *
+     * @param deconv   функция разворачивания номера комбинации
+     * @param parallel флаг, нужен ли параллельный поток
+     * @param <T>      тип развёрнутой комбинации
+     * @return поток развёрнутых комбинаций
+     */
+    @NotNull
+    protected <T> Stream<T> stream(@NotNull Function<BigInteger, T> deconv, boolean parallel) {
+        Objects.requireNonNull(deconv);
+        return StreamSupport.stream(
+                new CombinationSpliterator<>(BigInteger.ZERO, combinationCnt, () -> CombinationDecoder.of(deconv)),
+                parallel
+        );
+    }
+
+    /**
+     * Получить курсор перебора, установленный на текущее положение в переборе комбинаций
+     *
+     * @return курсор перебора
+     */
+    @NotNull
+    private CombinationCursor getLoopCursor() {
+        if (loopCursor == null) {
+            loopCursor = new CombinationCursor(this);
+            loopCursor.seek(combinationLoopPos);
+        }
+        return loopCursor;
+    }
+
     /**
      * Преобразование номер комбинации в комбинацию
      *
@@ -197,6 +398,8 @@ public class Combiner {
      */
     @NotNull
     public List<Object> deconv(@NotNull BigInteger combinationNumber) {
+        if (longCodec && combinationNumber.bitLength() < Long.SIZE)
+            return deconv(combinationNumber.longValue());
         List<Object> res = new LinkedList<>();
         for (Range range : ranges) {
             if (!range.isEmpty()) {
@@ -211,6 +414,28 @@ public class Combiner {
         return res;
     }
 
+    /**
+     * Преобразование номер комбинации в комбинацию
+     *
+     * @param combinationNumber номер комбинации
+     * @return следующая комбинация
+     */
+    @NotNull
+    public List<Object> deconv(long combinationNumber) {
+        List<Object> res = new ArrayList<>(ranges.size() + 1);
+        for (Range range : ranges) {
+            if (!range.isEmpty()) {
+                if (!range.isEnabled())
+                    res.add(range.getCurrentValue());
+                else {
+                    combinationNumber = range.pullFrom(combinationNumber, res);
+                }
+            } else
+                res.add(null);
+        }
+        return res;
+    }
+
     /**
      * Преобразование номер комбинации в комбинацию
      *
@@ -231,6 +456,69 @@ public class Combiner {
         return res;
     }
 
+    /**
+     * Преобразование номера комбинации в номера шагов диапазонов без создания объектов.
+     * Для запрещённых диапазонов записывается номер шага значения по умолчанию,
+     * для пустых - ноль. Номер шага запрещённого диапазона не задаёт его значение точно:
+     * значение по умолчанию может лежать между шагами, а значение вне диапазона даёт
+     * отрицательный номер шага, поэтому значение запрещённого диапазона нужно брать
+     * из Range.getCurrentValue(), а не из getInt(step) и подобных методов диапазона
+     *
+     * @param combinationNumber номер комбинации
+     * @param steps             массив номеров шагов, по одному на каждый диапазон
+     */
+    public void deconvStepsInto(long combinationNumber, @NotNull int[] steps) {
+        checkLongCodec();
+        for (int i = 0; i < ranges.size(); i++) {
+            Range range = ranges.get(i);
+            if (range.isEmpty())
+                steps[i] = 0;
+            else if (!range.isEnabled())
+                steps[i] = range.getCurrentStepNum();
+            else {
+                steps[i] = (int) (combinationNumber % (range.getStepCnt() + 1));
+                combinationNumber = combinationNumber / (range.getStepCnt() + 1);
+            }
+        }
+    }
+
+    /**
+     * Преобразование номера комбинации в комбинацию, записываемую в представление
+     *
+     * @param combinationNumber номер комбинации
+     * @param view              представление комбинации
+     */
+    public void deconvInto(long combinationNumber, @NotNull CombinationView view) {
+        deconvStepsInto(combinationNumber, view.steps);
+        view.fillCurrentValues();
+        view.position = combinationNumber;
+    }
+
+    /**
+     * Узнать номер комбинации по номерам шагов диапазонов
+     *
+     * @param steps массив номеров шагов, по одному на каждый диапазон
+     * @return номер комбинации
+     */
+    public long convSteps(@NotNull int[] steps) {
+        checkLongCodec();
+        long value = 0;
+        for (int i = ranges.size() - 1; i >= 0; i--) {
+            Range range = ranges.get(i);
+            if (!range.isEmpty() && range.isEnabled())
+                value = value * (range.getStepCnt() + 1) + steps[i];
+        }
+        return value;
+    }
+
+    /**
+     * Проверить, что свёртка всех диапазонов помещается в long
+     */
+    private void checkLongCodec() {
+        if (!longCodec)
+            throw new AssertionError("combination numbers of " + this + " do not fit in long");
+    }
+
     /**
      * Узнать номер комбинации по её значению
      *
@@ -239,6 +527,8 @@ public class Combiner {
      */
     @NotNull
     public BigInteger conv(@NotNull List<Object> combination) {
+        if (longCodec)
+            return BigInteger.valueOf(longConv(combination));
         BigInteger value = BigInteger.valueOf(0);
         Iterator it = new LinkedList<>(combination).descendingIterator();
         for (int i = 0; i < ranges.size(); i++) {
@@ -253,6 +543,27 @@ public class Combiner {
         return value;
     }
 
+    /**
+     * Узнать номер комбинации по её значению
+     *
+     * @param combination комбинация
+     * @return номер комбинации
+     */
+    public long longConv(@NotNull List<?> combination) {
+        long value = 0;
+        ListIterator<?> it = combination.listIterator(combination.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            Range range = ranges.get(ranges.size() - i - 1);
+            if (!range.isEmpty()) {
+                Object object = it.previous();
+                if (range.isEnabled()) {
+                    value = range.pushTo(value, object);
+                }
+            }
+        }
+        return value;
+    }
+
     /**
      * Узнать номер комбинации по её значению
      *
@@ -306,6 +617,19 @@ public class Combiner {
         return values;
     }
 
+    /**
+     * Получить дескриптор диапазона по его названию для быстрого чтения значений из CombinationView
+     *
+     * @param name название диапазона
+     * @return дескриптор диапазона
+     */
+    public int getRangeHandle(@NotNull String name) {
+        Integer rangeHandle = rangeDict.get(Objects.requireNonNull(name));
+        if (rangeHandle == null)
+            throw new IllegalArgumentException("getRangeHandle(): there is no range " + name);
+        return rangeHandle;
+    }
+
     /**
      * Задать значение по умолчанию
      *
@@ -1,9 +1,9 @@
 package com.github.aoklyunin.jCollections.combiners;
 
+import com.github.aoklyunin.jCollections.Progress;
 import com.github.aoklyunin.jCollections.combiners.ranges.Range;
 import org.jetbrains.annotations.NotNull;
 
-import java.math.BigInteger;
 import java.util.List;
 import java.util.Objects;
 
@@ -37,6 +37,27 @@ public class FixedSizeCombiner extends GammaCombiner {
         }
     }
 
+    /**
+     * Конструктор хранителя интервалов
+     *
+     * @param combinationSetSize    количество элементов в комбинации
+     * @param combinationSetStorage способ хранения наборов комбинаций
+     * @param ranges                список интервалов
+     */
+    public FixedSizeCombiner(
+            int combinationSetSize, @NotNull CombinationSetStorage combinationSetStorage, Range... ranges
+    ) {
+        super(combinationSetStorage, ranges);
+        this.combinationSetSize = combinationSetSize;
+        initFixedSizeCombinationLoop();
+        for (int nonRepeatedRangeIndex : nonRepeatedRangeIndexes) {
+            if (ranges[nonRepeatedRangeIndex].getStepCnt() + 1 < combinationSetSize)
+                throw new AssertionError(ranges[nonRepeatedRangeIndex] +
+                        " has stepCnt less than fixed combination length=" + ranges.length
+                );
+        }
+    }
+
     /**
      * Конструктор хранителя интервалов
      *
@@ -56,13 +77,74 @@ public class FixedSizeCombiner extends GammaCombiner {
     }
 
     /**
-     * Проверка комбинации, подходит ли она для данного комбайнера
+     * Конструктор хранителя интервалов
      *
-     * @param combinationNumber номер комбинации
-     * @return флаг, подходит ли комбинация для данного комбайнера
+     * @param combinationSetSize    количество элементов в комбинации
+     * @param combinationSetStorage способ хранения наборов комбинаций
+     * @param lst                   список интервалов
      */
-    protected boolean checkCombination(@NotNull BigInteger combinationNumber) {
-        return combinationNumber.bitCount() == combinationSetSize && super.checkCombination(combinationNumber);
+    public FixedSizeCombiner(
+            int combinationSetSize, @NotNull CombinationSetStorage combinationSetStorage, @NotNull List<Range> lst
+    ) {
+        super(combinationSetStorage, Objects.requireNonNull(lst));
+        this.combinationSetSize = combinationSetSize;
+        initFixedSizeCombinationLoop();
+        for (int nonRepeatedRangeIndex : nonRepeatedRangeIndexes) {
+            if (ranges.get(nonRepeatedRangeIndex).getStepCnt() + 1 < combinationSetSize)
+                throw new AssertionError(ranges.get(nonRepeatedRangeIndex) +
+                        " has stepCnt less than fixed combination length=" + ranges.size()
+                );
+        }
+    }
+
+    /**
+     * Получить количество комбинаций, которое должно быть в каждом наборе
+     *
+     * @return количество комбинаций в каждом наборе
+     */
+    @Override
+    protected int getRequiredCombinationSetSize() {
+        return combinationSetSize;
+    }
+
+    /**
+     * Построить упорядоченный по возрастанию список чисел допустимых наборов комбинаций.
+     * Если значения всех диапазонов могут повторяться, то подходят все подмножества из
+     * combinationSetSize комбинаций, и, пока числа наборов помещаются в long, они
+     * перебираются напрямую по возрастанию (алгоритм Госпера)
+     *
+     * @param bitCnt кол-во комбинаций, из которых составляются наборы
+     * @return таблица чисел допустимых наборов комбинаций
+     */
+    @NotNull
+    @Override
+    protected CombinationSetTable buildCombinationSetValuesTable(int bitCnt) {
+        if (!nonRepeatedRangeIndexes.isEmpty() || bitCnt >= Long.SIZE - 1)
+            return super.buildCombinationSetValuesTable(bitCnt);
+        CombinationSetTable table = createCombinationSetTable(bitCnt);
+        if (combinationSetSize > bitCnt)
+            return table;
+        Progress progress = getBuildProgress();
+        int cnt = 0;
+        long limit = 1L << bitCnt;
+        long combinationSetValue = (1L << combinationSetSize) - 1;
+        while (combinationSetValue < limit) {
+            table.add(combinationSetValue);
+            if (progress != null && ++cnt == BUILD_PROGRESS_STEP) {
+                progress.add(cnt);
+                cnt = 0;
+            }
+            if (combinationSetValue == 0)
+                break;
+            // следующее число с тем же количеством единичных битов
+            long lowestBit = combinationSetValue & -combinationSetValue;
+            long ripple = combinationSetValue + lowestBit;
+            combinationSetValue = (((ripple ^ combinationSetValue) >>> 2) / lowestBit) | ripple;
+        }
+        if (progress != null)
+            progress.add(cnt);
+        table.trimToSize();
+        return table;
     }
 
     /**
@@ -5,10 +5,12 @@ import com.github.aoklyunin.jCollections.combiners.ranges.Range;
 import org.jetbrains.annotations.NotNull;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.ObjIntConsumer;
 
 /**
  * Класс переборщика комбинаций перебирает наборы комбинаций из всех диапазонов
@@ -17,6 +19,9 @@ import java.util.Objects;
  * стоят на первом месте и вставляются по очереди.
  * При этом не может быть одинаковых значений в указанных диапазонах, а в  остальных может
  * в указанных диапазонах, а в остальных - может.
+ * Значения главного диапазона получают комбинации набора по возрастанию их номеров, поэтому
+ * каждое назначение однозначно задаётся набором комбинаций. Наборы не хранятся в таблице:
+ * их количество, номер набора и набор по номеру рассчитываются комбинаторно
  */
 public class ForEachCombiner extends FixedSizeCombiner {
     /**
@@ -31,7 +36,10 @@ public class ForEachCombiner extends FixedSizeCombiner {
      * @param ranges список интервалов
      */
     public ForEachCombiner(Range... ranges) {
-        super(ranges.length - 1, Arrays.asList(ranges).subList(1, ranges.length));
+        super(
+                ranges[0].getStepCnt() + 1, CombinationSetStorage.RANKING,
+                Arrays.asList(ranges).subList(1, ranges.length)
+        );
         mainRange = ranges[0];
     }
 
@@ -41,8 +49,8 @@ public class ForEachCombiner extends FixedSizeCombiner {
      * @param lst список интервалов
      */
     public ForEachCombiner(@NotNull List<Range> lst) {
-        super(lst.size() - 1, lst.subList(1, lst.size()));
-        mainRange = ranges.get(0);
+        super(lst.get(0).getStepCnt() + 1, CombinationSetStorage.RANKING, lst.subList(1, lst.size()));
+        mainRange = lst.get(0);
     }
 
     /**
@@ -54,10 +62,10 @@ public class ForEachCombiner extends FixedSizeCombiner {
     @NotNull
     @Override
     public BigInteger gammaConv(@NotNull List<List<?>> combinationSets) {
-        List<List<?>> reducedCombinationSet = new LinkedList<>();
-        for (List<?> combination : combinationSets) {
-            reducedCombinationSet.add(new LinkedList<>(combination.subList(1, combination.size())));
-        }
+        // отбрасываем значения главного диапазона, не копируя комбинации
+        List<List<?>> reducedCombinationSet = new ArrayList<>(combinationSets.size());
+        for (List<?> combination : combinationSets)
+            reducedCombinationSet.add(combination.subList(1, combination.size()));
         // получаем номер набора в списке номеров наборов
         return super.gammaConv(reducedCombinationSet);
     }
@@ -71,14 +79,57 @@ public class ForEachCombiner extends FixedSizeCombiner {
     @NotNull
     @Override
     public List<List<?>> gammaDeconv(@NotNull BigInteger value) {
-        List<List<?>> gammaDeconved = super.gammaDeconv(value);
-        List<List<?>> addedCombinationSet = new LinkedList<>();
-        for (int i = 0; i < mainRange.getStepCnt(); i++) {
-            LinkedList<Object> newCombination = new LinkedList<>(gammaDeconved.get(i));
-            newCombination.add(0, mainRange.getValue(i));
-            addedCombinationSet.add(newCombination);
-        }
-        return addedCombinationSet;
+        return addMainValues(super.gammaDeconv(value));
+    }
+
+    /**
+     * Получить ленивый итератор всех наборов комбинаций в порядке их номеров
+     *
+     * @return итератор всех наборов комбинаций
+     */
+    @NotNull
+    @Override
+    public Iterator<List<List<?>>> gammaIterator() {
+        Iterator<List<List<?>>> iterator = super.gammaIterator();
+        return new Iterator<List<List<?>>>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public List<List<?>> next() {
+                return addMainValues(iterator.next());
+            }
+        };
+    }
+
+    /**
+     * Перебрать все наборы комбинаций, не создавая объектов на каждый набор, см. GammaCombiner.gammaForEach().
+     * Значения главного диапазона в массив не записываются: k-й комбинации набора соответствует
+     * значение mainRange.getValue(k)
+     *
+     * @param action обработчик набора, получает массив номеров комбинаций и их кол-во в наборе
+     */
+    @Override
+    public void gammaForEach(@NotNull ObjIntConsumer<int[]> action) {
+        super.gammaForEach(action);
+    }
+
+    /**
+     * Вставить значения главного диапазона в начало комбинаций набора. Комбинации
+     * не копируются: значение вставляется в список, созданный при развёртке комбинации
+     *
+     * @param combinationSets набор комбинаций, упорядоченных по возрастанию их номеров
+     * @return тот же набор комбинаций
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    private List<List<?>> addMainValues(@NotNull List<List<?>> combinationSets) {
+        int i = 0;
+        for (List<?> combination : combinationSets)
+            ((List<Object>) combination).add(0, mainRange.getValue(i++));
+        return combinationSets;
     }
 
     /**
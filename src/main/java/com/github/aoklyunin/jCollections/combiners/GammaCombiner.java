@@ -1,11 +1,19 @@
 package com.github.aoklyunin.jCollections.combiners;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.github.aoklyunin.jCollections.Async;
+import com.github.aoklyunin.jCollections.Progress;
 import com.github.aoklyunin.jCollections.combiners.ranges.Range;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
 
 /**
  * Класс переборщика комбинаций перебирает наборы комбинаций из всех диапазонов
@@ -13,24 +21,68 @@ import java.util.*;
  * в указанных диапазонах, а в остальных - может
  */
 public class GammaCombiner extends AlphaCombiner {
+    /**
+     * Кол-во комбинаций, начиная с которого таблица наборов строится параллельно
+     */
+    private static final int PARALLEL_BUILD_MIN_BIT_CNT = 16;
+    /**
+     * Через сколько построенных наборов сообщается прогресс построения таблицы
+     */
+    protected static final int BUILD_PROGRESS_STEP = 1 << 16;
+    /**
+     * Во сколько раз отрезков номеров наборов, на которые делится построение таблицы, больше, чем потоков
+     */
+    private static final int BUILD_PARTS_PER_THREAD = 8;
     /**
      * Список индексов диапазонов, в которых не должны повторяться значения
      */
     @NotNull
     protected List<Integer> nonRepeatedRangeIndexes;
     /**
-     * Список чисел, соответствующих устраивающим нас наборам комбинаций
+     * Упорядоченная таблица чисел, соответствующих устраивающим нас наборам комбинаций
      * Каждое число через последовательность битов определяет подбираемый набор комбинаций.
      * Каждой комбинации соответствует бит равный одному в этом числе. Номера единичных битов
      * определяют порядковые номера комбинаций, содержащихся в наборе.
      */
-    private List<BigInteger> combinationSetValuesTable;
+    @Nullable
+    private volatile CombinationSetTable combinationSetValuesTable;
+    /**
+     * Массив предрассчитанных значений диапазонов с неповторяемыми значениями по номеру комбинации,
+     * значение k-го диапазона с неповторяемыми значениями в j-ой комбинации лежит по индексу
+     * j * nonRepeatedRangeIndexes.size() + k
+     */
+    @Nullable
+    private volatile int[] nonRepeatedRangeValuesFromNumbers;
+    /**
+     * Номера первых битов масок занятых значений диапазонов с неповторяемыми значениями:
+     * значению v k-го диапазона соответствует бит nonRepeatedRangeValueBitOffsets[k] + v,
+     * последний элемент - общее кол-во битов масок
+     */
+    @JsonIgnore
+    private int[] nonRepeatedRangeValueBitOffsets;
+    /**
+     * Способ хранения наборов комбинаций
+     */
+    @NotNull
+    @JsonIgnore
+    private CombinationSetStorage combinationSetStorage = CombinationSetStorage.TABLE;
+    /**
+     * Нумератор наборов комбинаций
+     */
+    @JsonIgnore
+    private CombinationSetRanking combinationSetRanking;
     /**
-     * Массив предрассчитанных значений диапазонов с неповторяемыми значениями по номеру комбинации
-     * (первый индекс - номер комбинации, второй - номер диапазона с неповторяемыми значениями)
+     * Блокировка построения таблицы наборов комбинаций
      */
     @NotNull
-    private Integer[][] nonRepeatedRangeValuesFromNumbers;
+    @JsonIgnore
+    private final Object combinationSetValuesTableLock = new Object();
+    /**
+     * Прогресс построения таблицы наборов комбинаций, null, если прогресс не отслеживается
+     */
+    @Nullable
+    @JsonIgnore
+    private volatile Progress buildProgress;
 
     /**
      * Конструктор хранителя интервалов
@@ -53,6 +105,18 @@ public class GammaCombiner extends AlphaCombiner {
         initGamaCombinationLoop();
     }
 
+    /**
+     * Конструктор хранителя интервалов
+     *
+     * @param combinationSetStorage способ хранения наборов комбинаций
+     * @param ranges                список интервалов
+     */
+    public GammaCombiner(@NotNull CombinationSetStorage combinationSetStorage, Range... ranges) {
+        super(ranges);
+        this.combinationSetStorage = Objects.requireNonNull(combinationSetStorage);
+        initGamaCombinationLoop();
+    }
+
     /**
      * Конструктор хранителя интервалов
      *
@@ -63,6 +127,18 @@ public class GammaCombiner extends AlphaCombiner {
         initGamaCombinationLoop();
     }
 
+    /**
+     * Конструктор хранителя интервалов
+     *
+     * @param combinationSetStorage способ хранения наборов комбинаций
+     * @param lst                   список интервалов
+     */
+    public GammaCombiner(@NotNull CombinationSetStorage combinationSetStorage, @NotNull List<Range> lst) {
+        super(Objects.requireNonNull(lst));
+        this.combinationSetStorage = Objects.requireNonNull(combinationSetStorage);
+        initGamaCombinationLoop();
+    }
+
     /**
      * инициализировать переборщик
      */
@@ -75,46 +151,439 @@ public class GammaCombiner extends AlphaCombiner {
      * инициализировать гамма переборщик
      */
     public void initGamaCombinationLoop() {
-        combinationLoopPos = BigInteger.ZERO;
+        resetCombinationLoop();
+        initLongCodec();
         // заполняем индексы диапазонов, в которых не должны повторяться значения
         nonRepeatedRangeIndexes = new ArrayList<>();
         for (int i = 0; i < ranges.size(); i++) {
             if (!ranges.get(i).isCanRepeatValue())
                 nonRepeatedRangeIndexes.add(i);
         }
-        // получаем кол-во всех комбинаций
-        AlphaCombiner allCombinationCombiner = new AlphaCombiner(ranges);
-        BigInteger maxValue = allCombinationCombiner.combinationCnt;
-        // рассчитываем гаммы
-        ArrayList<Integer> gammas = new ArrayList<>();
-        int currentGamma = 1;
-        gammas.add(currentGamma);
-        for (int i = ranges.size() - 1; i >= 1; i--) {
-            currentGamma *= ranges.get(i).getStepCnt() + 1;
-            gammas.add(currentGamma);
+        nonRepeatedRangeValueBitOffsets = new int[nonRepeatedRangeIndexes.size() + 1];
+        for (int k = 0; k < nonRepeatedRangeIndexes.size(); k++)
+            nonRepeatedRangeValueBitOffsets[k + 1] = nonRepeatedRangeValueBitOffsets[k] +
+                    ranges.get(nonRepeatedRangeIndexes.get(k)).getStepCnt() + 1;
+        // получаем кол-во комбинаций, из которых составляются наборы
+        int bitCnt = simpleConv(getMax());
+        combinationSetRanking = new CombinationSetRanking(
+                ranges, nonRepeatedRangeIndexes, bitCnt, getRequiredCombinationSetSize()
+        );
+        // кол-во наборов считается комбинаторно, таблица строится при первом обращении к ней
+        synchronized (combinationSetValuesTableLock) {
+            nonRepeatedRangeValuesFromNumbers = null;
+            combinationSetValuesTable = null;
         }
-        //инициализируем массив предрассчитанных значений диапазонов с неповторяемыми значениями
-        nonRepeatedRangeValuesFromNumbers = new Integer[maxValue.bitLength()][nonRepeatedRangeIndexes.size()];
-        Async.parallelForEach(maxValue.bitLength(), (i) -> {
-            for (int j = 0; j < nonRepeatedRangeIndexes.size(); j++) {
-                int rangeNum = nonRepeatedRangeIndexes.get(j);
-                Range nonRepeatedRange = ranges.get(rangeNum);
-                nonRepeatedRangeValuesFromNumbers[i][j] = i / gammas.get(rangeNum) % (nonRepeatedRange.getStepCnt() + 1);
+        combinationCnt = combinationSetRanking.getCombinationSetCnt();
+    }
+
+    /**
+     * Получить таблицу допустимых наборов комбинаций, построив её, если она ещё не построена
+     *
+     * @return таблица чисел допустимых наборов комбинаций, null, если наборы не хранятся
+     */
+    @Nullable
+    private CombinationSetTable getCombinationSetValuesTable() {
+        if (combinationSetStorage == CombinationSetStorage.RANKING)
+            return null;
+        CombinationSetTable table = combinationSetValuesTable;
+        if (table != null)
+            return table;
+        synchronized (combinationSetValuesTableLock) {
+            if (combinationSetValuesTable == null) {
+                int bitCnt = simpleConv(getMax());
+                //инициализируем массив предрассчитанных значений диапазонов с неповторяемыми значениями
+                int nonRepeatedRangeCnt = nonRepeatedRangeIndexes.size();
+                int[] values = new int[bitCnt * nonRepeatedRangeCnt];
+                Async.parallelForEachLong(bitCnt, (i) -> {
+                    for (int j = 0; j < nonRepeatedRangeCnt; j++)
+                        values[(int) i * nonRepeatedRangeCnt + j] = combinationSetRanking.getValue(i, j);
+                });
+                nonRepeatedRangeValuesFromNumbers = values;
+                // строим только допустимые наборы комбинаций
+                combinationSetValuesTable = loadCombinationSetValuesTable(bitCnt);
             }
-        });
+            return combinationSetValuesTable;
+        }
+    }
+
+    /**
+     * Построить таблицу допустимых наборов комбинаций в фоновом потоке общего пула
+     *
+     * @return future, завершающееся после построения таблицы
+     */
+    @NotNull
+    public CompletableFuture<Void> initAsync() {
+        return CompletableFuture.runAsync(this::getCombinationSetValuesTable);
+    }
+
+    /**
+     * Построить таблицу допустимых наборов комбинаций в фоновом потоке
+     *
+     * @param executor исполнитель, в котором строится таблица
+     * @return future, завершающееся после построения таблицы
+     */
+    @NotNull
+    public CompletableFuture<Void> initAsync(@NotNull Executor executor) {
+        return CompletableFuture.runAsync(this::getCombinationSetValuesTable, Objects.requireNonNull(executor));
+    }
+
+    /**
+     * Проверить, построена ли таблица допустимых наборов комбинаций
+     *
+     * @return флаг, построена ли таблица, для наборов, которые не хранятся, всегда true
+     */
+    @JsonIgnore
+    public boolean isInitialized() {
+        return combinationSetStorage == CombinationSetStorage.RANKING || combinationSetValuesTable != null;
+    }
+
+    /**
+     * Загрузить таблицу допустимых наборов комбинаций из дискового кэша, если он включён,
+     * а если в кэше её нет, то построить и сохранить в кэш
+     *
+     * @param bitCnt кол-во комбинаций, из которых составляются наборы
+     * @return таблица чисел допустимых наборов комбинаций
+     */
+    @NotNull
+    private CombinationSetTable loadCombinationSetValuesTable(int bitCnt) {
+        if (CombinationSetTableCache.getDirectory() == null)
+            return buildCombinationSetValuesTableWithProgress(bitCnt);
+        byte[] key = CombinationSetTableCache.getKey(
+                getClass(), getRequiredCombinationSetSize(), bitCnt,
+                nonRepeatedRangeValueBitOffsets, Objects.requireNonNull(nonRepeatedRangeValuesFromNumbers)
+        );
+        CombinationSetTable table = CombinationSetTableCache.load(
+                key, bitCnt, combinationSetStorage == CombinationSetStorage.MAPPED
+        );
+        if (table == null) {
+            table = buildCombinationSetValuesTableWithProgress(bitCnt);
+            CombinationSetTableCache.store(key, bitCnt, table);
+        }
+        return table;
+    }
+
+    /**
+     * Построить таблицу допустимых наборов комбинаций, сообщая прогресс построения, если он задан
+     *
+     * @param bitCnt кол-во комбинаций, из которых составляются наборы
+     * @return таблица чисел допустимых наборов комбинаций
+     */
+    @NotNull
+    private CombinationSetTable buildCombinationSetValuesTableWithProgress(int bitCnt) {
+        Progress progress = buildProgress;
+        if (progress == null)
+            return buildCombinationSetValuesTable(bitCnt);
+        progress.start(combinationCnt.bitLength() < Long.SIZE ? combinationCnt.longValue() : Long.MAX_VALUE);
+        try {
+            return buildCombinationSetValuesTable(bitCnt);
+        } finally {
+            progress.finish();
+        }
+    }
+
+    /**
+     * Получить прогресс построения таблицы наборов комбинаций
+     *
+     * @return прогресс построения таблицы, null, если прогресс не отслеживается
+     */
+    @Nullable
+    @JsonIgnore
+    public Progress getBuildProgress() {
+        return buildProgress;
+    }
 
-        // создаём список чисел, соответствующих наборам комбинаций
-        List<BigInteger> newCombinationSetValuesList = Collections.synchronizedList(new LinkedList<>());
-        // проверяем каждую комбинацию
-        Async.parallelForEach(maxValue.add(BigInteger.ONE), (i) -> {
-            if (checkCombination(i))
-                synchronized (newCombinationSetValuesList) {
-                    newCombinationSetValuesList.add(i);
-                }
+    /**
+     * Задать прогресс построения таблицы наборов комбинаций. Общее кол-во шагов прогресса -
+     * кол-во наборов, слушатель вызывается из потоков построения. Таблица, загруженная
+     * из дискового кэша, не строится, и прогресс о ней не сообщает
+     *
+     * @param buildProgress прогресс построения таблицы, null, чтобы не отслеживать прогресс
+     */
+    public void setBuildProgress(@Nullable Progress buildProgress) {
+        this.buildProgress = buildProgress;
+    }
+
+    /**
+     * Создать пустую таблицу чисел наборов комбинаций в соответствии со способом хранения наборов
+     *
+     * @param bitCnt кол-во комбинаций, из которых составляются наборы
+     * @return пустая таблица
+     */
+    @NotNull
+    protected CombinationSetTable createCombinationSetTable(int bitCnt) {
+        if (combinationSetStorage == CombinationSetStorage.MAPPED)
+            return new MappedCombinationSetTable(bitCnt);
+        return new CombinationSetTable(bitCnt);
+    }
+
+    /**
+     * Построить упорядоченный по возрастанию список чисел допустимых наборов комбинаций.
+     * Таблица строится параллельно: номера наборов делятся на равные отрезки, первый набор каждого
+     * отрезка находится нумератором наборов, и с него обходчик перебирает наборы отрезка в свою
+     * таблицу, а затем таблицы склеиваются по возрастанию отрезков. Отрезки одинаковой длины,
+     * поэтому ни один поток не ждёт самый большой блок, а результат не зависит от числа потоков
+     * и от порядка их выполнения
+     *
+     * @param bitCnt кол-во комбинаций, из которых составляются наборы
+     * @return таблица чисел допустимых наборов комбинаций
+     */
+    @NotNull
+    protected CombinationSetTable buildCombinationSetValuesTable(int bitCnt) {
+        CombinationSetTable table = createCombinationSetTable(bitCnt);
+        // таблица в файле пишется последовательно, чтобы не держать части в памяти
+        if (bitCnt < PARALLEL_BUILD_MIN_BIT_CNT || combinationSetStorage == CombinationSetStorage.MAPPED) {
+            addCombinationSets(table, new CombinationSetWalker(bitCnt), -1);
+            table.trimToSize();
+            return table;
+        }
+        long combinationSetCnt = combinationCnt.longValue();
+        int partCnt = (int) Math.min(
+                combinationSetCnt, (long) ForkJoinPool.commonPool().getParallelism() * BUILD_PARTS_PER_THREAD
+        );
+        // таблицы наборов по отрезкам номеров
+        CombinationSetTable[] parts = new CombinationSetTable[partCnt];
+        Async.parallelForEachLong(partCnt, (i) -> {
+            long from = combinationSetCnt * i / partCnt;
+            long to = combinationSetCnt * (i + 1) / partCnt;
+            CombinationSetTable part = new CombinationSetTable(bitCnt);
+            BigInteger start = combinationSetRanking.unrank(BigInteger.valueOf(from));
+            addCombinationSets(part, new CombinationSetWalker(bitCnt, start), to - from);
+            parts[(int) i] = part;
         });
+        for (CombinationSetTable part : parts)
+            table.addAll(part);
+        table.trimToSize();
+        return table;
+    }
 
-        combinationSetValuesTable = new ArrayList<>(newCombinationSetValuesList);
-        combinationCnt = BigInteger.valueOf(combinationSetValuesTable.size());
+    /**
+     * Добавить в таблицу допустимые наборы комбинаций по возрастанию их чисел.
+     * Следующий допустимый набор получается из текущего добавлением самой младшей комбинации,
+     * которая не повторяет значений старших комбинаций набора, и удалением всех комбинаций
+     * младше неё. Поэтому перебираются только допустимые наборы, а не все 2^N подмножеств.
+     * Если количество комбинаций в наборе задано, то не перебираются и наборы, которые
+     * нельзя дополнить до нужного размера
+     *
+     * @param table  таблица, в которую добавляются наборы
+     * @param walker обходчик наборов
+     * @param cnt    кол-во добавляемых наборов, -1, если добавляются все оставшиеся наборы
+     */
+    private void addCombinationSets(@NotNull CombinationSetTable table, @NotNull CombinationSetWalker walker, long cnt) {
+        Progress progress = buildProgress;
+        int progressCnt = 0;
+        for (long i = 0; i != cnt && walker.next(); i++) {
+            table.add(walker.words);
+            if (progress != null && ++progressCnt == BUILD_PROGRESS_STEP) {
+                progress.add(progressCnt);
+                progressCnt = 0;
+            }
+        }
+        if (progress != null)
+            progress.add(progressCnt);
+    }
+
+    /**
+     * Обходчик допустимых наборов комбинаций по возрастанию их чисел, см. addCombinationSets.
+     * Биты текущего набора и маски занятых значений меняются на месте
+     */
+    private class CombinationSetWalker {
+        /**
+         * Биты текущего набора
+         */
+        @NotNull
+        private final long[] words;
+        /**
+         * Маски значений диапазонов с неповторяемыми значениями, занятых комбинациями набора
+         */
+        @NotNull
+        private final long[] usedValues;
+        /**
+         * Количество комбинаций в каждом наборе, -1, если оно не ограничено
+         */
+        private final int requiredSetSize;
+        /**
+         * Номер комбинации, меньше которого должны быть добавляемые комбинации
+         */
+        private final int limit;
+        /**
+         * Количество комбинаций в текущем наборе
+         */
+        private int setSize;
+        /**
+         * Флаг, получен ли уже первый набор
+         */
+        private boolean started;
+        /**
+         * Флаг, перебраны ли все наборы
+         */
+        private boolean finished;
+
+        /**
+         * Конструктор обходчика всех наборов, начиная с пустого
+         *
+         * @param bitCnt кол-во комбинаций, из которых составляются наборы
+         */
+        CombinationSetWalker(int bitCnt) {
+            requiredSetSize = getRequiredCombinationSetSize();
+            words = new long[Math.max(1, (bitCnt + Long.SIZE - 1) / Long.SIZE)];
+            usedValues = newUsedValuesMasks();
+            limit = bitCnt;
+        }
+
+        /**
+         * Конструктор обходчика наборов, начиная с заданного допустимого набора.
+         * Следующий набор зависит только от текущего, поэтому обход с любого набора
+         * даёт те же наборы, что и обход с пустого
+         *
+         * @param bitCnt кол-во комбинаций, из которых составляются наборы
+         * @param start  число первого набора, должно быть числом допустимого набора
+         */
+        CombinationSetWalker(int bitCnt, @NotNull BigInteger start) {
+            this(bitCnt);
+            for (int j = 0; j < start.bitLength(); j++) {
+                if (!start.testBit(j))
+                    continue;
+                words[j / Long.SIZE] |= 1L << j;
+                setCombinationValuesUsed(usedValues, j, true);
+                setSize++;
+            }
+        }
+
+        /**
+         * Перейти к следующему допустимому набору
+         *
+         * @return флаг, найден ли набор, если нет, то все наборы перебраны
+         */
+        boolean next() {
+            if (finished)
+                return false;
+            if (started && !advance())
+                return false;
+            started = true;
+            while (!checkCombinationSetSize(setSize)) {
+                if (!advance())
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * Перейти к следующему набору, в котором комбинации не повторяют значений
+         *
+         * @return флаг, найден ли набор
+         */
+        private boolean advance() {
+            // ищем самую младшую комбинацию, которую можно добавить к старшим комбинациям набора
+            int j = 0;
+            for (; j < limit; j++) {
+                if ((words[j / Long.SIZE] & (1L << j)) != 0) {
+                    // комбинация уже есть в наборе: убираем её, все младшие уже убраны
+                    words[j / Long.SIZE] &= ~(1L << j);
+                    setCombinationValuesUsed(usedValues, j, false);
+                    setSize--;
+                } else if (canExtendCombinationSet(setSize, j, requiredSetSize) && canAddCombination(usedValues, j))
+                    break;
+            }
+            // все допустимые наборы перебраны
+            if (j == limit) {
+                finished = true;
+                return false;
+            }
+            words[j / Long.SIZE] |= 1L << j;
+            setCombinationValuesUsed(usedValues, j, true);
+            setSize++;
+            return true;
+        }
+    }
+
+    /**
+     * Проверка, можно ли после добавления комбинации дополнить набор до нужного размера
+     * комбинациями с меньшими номерами
+     *
+     * @param setSize           количество комбинаций в наборе до добавления
+     * @param combinationNumber номер добавляемой комбинации
+     * @param requiredSetSize   количество комбинаций в каждом наборе, -1, если оно не ограничено
+     * @return флаг, можно ли добавить комбинацию
+     */
+    private static boolean canExtendCombinationSet(int setSize, int combinationNumber, int requiredSetSize) {
+        return requiredSetSize < 0 || setSize < requiredSetSize && combinationNumber >= requiredSetSize - setSize - 1;
+    }
+
+    /**
+     * Создать пустые маски занятых значений диапазонов с неповторяемыми значениями
+     *
+     * @return маски занятых значений
+     */
+    @NotNull
+    private long[] newUsedValuesMasks() {
+        return new long[(nonRepeatedRangeValueBitOffsets[nonRepeatedRangeIndexes.size()] + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    /**
+     * Проверка, не повторяет ли комбинация значения, занятые другими комбинациями набора
+     *
+     * @param usedValues        маски занятых значений диапазонов с неповторяемыми значениями
+     * @param combinationNumber номер комбинации
+     * @return флаг, можно ли добавить комбинацию в набор
+     */
+    private boolean canAddCombination(@NotNull long[] usedValues, int combinationNumber) {
+        for (int k = 0; k < nonRepeatedRangeIndexes.size(); k++) {
+            int bit = nonRepeatedRangeValueBitOffsets[k] + getNonRepeatedRangeValue(combinationNumber, k);
+            if ((usedValues[bit / Long.SIZE] & (1L << bit)) != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Занять или освободить значения комбинации в диапазонах с неповторяемыми значениями
+     *
+     * @param usedValues        маски занятых значений диапазонов с неповторяемыми значениями
+     * @param combinationNumber номер комбинации
+     * @param used              флаг, занять или освободить значения
+     */
+    private void setCombinationValuesUsed(@NotNull long[] usedValues, int combinationNumber, boolean used) {
+        for (int k = 0; k < nonRepeatedRangeIndexes.size(); k++) {
+            int bit = nonRepeatedRangeValueBitOffsets[k] + getNonRepeatedRangeValue(combinationNumber, k);
+            if (used)
+                usedValues[bit / Long.SIZE] |= 1L << bit;
+            else
+                usedValues[bit / Long.SIZE] &= ~(1L << bit);
+        }
+    }
+
+    /**
+     * Занять значения комбинации, если она не повторяет значения, занятые другими комбинациями набора
+     *
+     * @param usedValues        маски занятых значений диапазонов с неповторяемыми значениями
+     * @param combinationNumber номер комбинации
+     * @return флаг, удалось ли добавить комбинацию в набор
+     */
+    private boolean addCombination(@NotNull long[] usedValues, int combinationNumber) {
+        if (!canAddCombination(usedValues, combinationNumber))
+            return false;
+        setCombinationValuesUsed(usedValues, combinationNumber, true);
+        return true;
+    }
+
+    /**
+     * Проверка, подходит ли количество комбинаций в наборе для данного комбайнера
+     *
+     * @param combinationSetSize количество комбинаций в наборе
+     * @return флаг, подходит ли набор такого размера для данного комбайнера
+     */
+    protected boolean checkCombinationSetSize(int combinationSetSize) {
+        int requiredCombinationSetSize = getRequiredCombinationSetSize();
+        return requiredCombinationSetSize < 0 || combinationSetSize == requiredCombinationSetSize;
+    }
+
+    /**
+     * Получить количество комбинаций, которое должно быть в каждом наборе
+     *
+     * @return количество комбинаций в каждом наборе, -1, если оно не ограничено
+     */
+    protected int getRequiredCombinationSetSize() {
+        return -1;
     }
 
 
@@ -123,31 +592,45 @@ public class GammaCombiner extends AlphaCombiner {
      *
      * @param combinationNumber номер комбинации
      * @return флаг, подходит ли комбинация для данного комбайнера
+     * @deprecated таблица наборов строится обходчиком CombinationSetWalker, который перебирает
+     * только допустимые наборы и этот метод не вызывает, поэтому его переопределение больше
+     * не фильтрует наборы
      */
+    @Deprecated
     protected boolean checkCombination(@NotNull BigInteger combinationNumber) {
-        // создаём список множеств, хранящих найденные значения
-        ArrayList<HashSet<Integer>> nonFoundValues = new ArrayList<>();
-        for (int k = 0; k < nonRepeatedRangeIndexes.size(); k++) {
-            HashSet<Integer> values = new HashSet<>();
-            nonFoundValues.add(values);
-        }
-        // перебираем биты в номере комбинации
-        for (int j = 0; j < combinationNumber.bitLength(); j++) {
-            // если текущий бит равен единице
-            if (combinationNumber.testBit(j)) {
-                // перебираем индексы диапазон с запрещёнными повторами
-                for (int k = 0; k < nonRepeatedRangeIndexes.size(); k++) {
-                    // если в множестве уже есть такое значение, значит,
-                    // такая комбинация нам не подходит
-                    if (!nonFoundValues.get(k).add(nonRepeatedRangeValuesFromNumbers[j][k])) {
-                        return false;
-                    }
-                }
+        if (nonRepeatedRangeIndexes.isEmpty())
+            return true;
+        // маски найденных значений
+        long[] usedValues = newUsedValuesMasks();
+        if (combinationNumber.bitLength() < Long.SIZE) {
+            // перебираем единичные биты в номере комбинации
+            for (long bits = combinationNumber.longValue(); bits != 0; bits &= bits - 1) {
+                // если значение уже занято, значит, такая комбинация нам не подходит
+                if (!addCombination(usedValues, Long.numberOfTrailingZeros(bits)))
+                    return false;
+            }
+        } else {
+            for (int j = 0; j < combinationNumber.bitLength(); j++) {
+                if (combinationNumber.testBit(j) && !addCombination(usedValues, j))
+                    return false;
             }
         }
         return true;
     }
 
+    /**
+     * Получить значение диапазона с неповторяемыми значениями в комбинации
+     *
+     * @param combinationNumber номер комбинации
+     * @param k                 номер диапазона в списке диапазонов с неповторяемыми значениями
+     * @return номер шага диапазона
+     */
+    private int getNonRepeatedRangeValue(int combinationNumber, int k) {
+        if (nonRepeatedRangeValuesFromNumbers != null)
+            return nonRepeatedRangeValuesFromNumbers[combinationNumber * nonRepeatedRangeIndexes.size() + k];
+        return combinationSetRanking.getValue(combinationNumber, k);
+    }
+
     /**
      * Узнать номер набора комбинаций по его значению
      *
@@ -156,8 +639,36 @@ public class GammaCombiner extends AlphaCombiner {
      */
     @NotNull
     public BigInteger gammaConv(@NotNull List<List<?>> combinationSets) {
-        // получаем номер набора в списке номеров наборов
-        return BigInteger.valueOf(combinationSetValuesTable.indexOf(alphaConv(Objects.requireNonNull(combinationSets))));
+        return rank(alphaConv(Objects.requireNonNull(combinationSets)));
+    }
+
+    /**
+     * Получить номер набора комбинаций по его числу, не разворачивая комбинации
+     *
+     * @param combinationSetValue число набора (бит j равен единице, если комбинация j есть в наборе)
+     * @return номер набора, -1, если набор не подходит для данного комбайнера
+     */
+    @NotNull
+    public BigInteger rank(@NotNull BigInteger combinationSetValue) {
+        CombinationSetTable table = getCombinationSetValuesTable();
+        if (table == null)
+            return combinationSetRanking.rank(Objects.requireNonNull(combinationSetValue));
+        // получаем номер набора в упорядоченной таблице номеров наборов
+        return BigInteger.valueOf(table.indexOf(Objects.requireNonNull(combinationSetValue)));
+    }
+
+    /**
+     * Получить число набора комбинаций по его номеру, не разворачивая комбинации
+     *
+     * @param rank номер набора
+     * @return число набора (бит j равен единице, если комбинация j есть в наборе)
+     */
+    @NotNull
+    public BigInteger unrank(@NotNull BigInteger rank) {
+        CombinationSetTable table = getCombinationSetValuesTable();
+        if (table == null)
+            return combinationSetRanking.unrank(Objects.requireNonNull(rank));
+        return table.get(rank.intValue());
     }
 
     /**
@@ -168,7 +679,84 @@ public class GammaCombiner extends AlphaCombiner {
      */
     @NotNull
     public List<List<?>> gammaDeconv(@NotNull BigInteger value) {
-        return alphaDeconv(combinationSetValuesTable.get(value.intValue()));
+        return alphaDeconv(unrank(value));
+    }
+
+    /**
+     * Получить ленивый итератор всех наборов комбинаций в порядке их номеров.
+     * Наборы не ищутся по номеру, а каждый следующий получается из предыдущего
+     * на месте, поэтому ни таблица, ни нумератор наборов не нужны. Каждый набор
+     * разворачивается в новые списки, перебор без создания объектов - gammaForEach()
+     *
+     * @return итератор всех наборов комбинаций
+     */
+    @NotNull
+    public Iterator<List<List<?>>> gammaIterator() {
+        CombinationSetWalker walker = new CombinationSetWalker(simpleConv(getMax()));
+        return new Iterator<List<List<?>>>() {
+            /**
+             * Флаг, найден ли следующий набор
+             */
+            private boolean hasNext = walker.next();
+
+            @Override
+            public boolean hasNext() {
+                return hasNext;
+            }
+
+            @Override
+            public List<List<?>> next() {
+                if (!hasNext)
+                    throw new NoSuchElementException();
+                List<List<?>> combinationSets = alphaDeconv(walker.words);
+                hasNext = walker.next();
+                return combinationSets;
+            }
+        };
+    }
+
+    /**
+     * Перебрать все наборы комбинаций в порядке их номеров, не создавая объектов на каждый набор.
+     * Номера комбинаций текущего набора по возрастанию записываются в один и тот же массив,
+     * который перезаполняется на месте, а значения комбинаций можно получить, например,
+     * методом deconvInto() с переиспользуемым CombinationView. Массив нельзя хранить
+     * после возврата из обработчика
+     *
+     * @param action обработчик набора, получает массив номеров комбинаций и их кол-во в наборе
+     */
+    public void gammaForEach(@NotNull ObjIntConsumer<int[]> action) {
+        Objects.requireNonNull(action);
+        int bitCnt = simpleConv(getMax());
+        CombinationSetWalker walker = new CombinationSetWalker(bitCnt);
+        int[] combinationNumbers = new int[bitCnt];
+        while (walker.next()) {
+            int cnt = 0;
+            for (int i = 0; i < walker.words.length; i++) {
+                for (long rest = walker.words[i]; rest != 0; rest &= rest - 1)
+                    combinationNumbers[cnt++] = i * Long.SIZE + Long.numberOfTrailingZeros(rest);
+            }
+            action.accept(combinationNumbers, cnt);
+        }
+    }
+
+    /**
+     * Получить последовательный поток всех наборов комбинаций
+     *
+     * @return поток всех наборов комбинаций
+     */
+    @NotNull
+    public Stream<List<List<?>>> gammaStream() {
+        return stream(this::gammaDeconv, false);
+    }
+
+    /**
+     * Получить параллельный поток всех наборов комбинаций
+     *
+     * @return параллельный поток всех наборов комбинаций
+     */
+    @NotNull
+    public Stream<List<List<?>>> parallelGammaStream() {
+        return stream(this::gammaDeconv, true);
     }
 
     /**
@@ -181,6 +769,17 @@ public class GammaCombiner extends AlphaCombiner {
         return nonRepeatedRangeIndexes;
     }
 
+    /**
+     * Получить способ хранения наборов комбинаций
+     *
+     * @return способ хранения наборов комбинаций
+     */
+    @NotNull
+    @JsonIgnore
+    public CombinationSetStorage getCombinationSetStorage() {
+        return combinationSetStorage;
+    }
+
     /**
      * Строковое представление объекта вида:
      *
@@ -210,19 +809,15 @@ public class GammaCombiner extends AlphaCombiner {
 
         GammaCombiner that = (GammaCombiner) o;
 
-        if (!Objects.equals(nonRepeatedRangeIndexes, that.nonRepeatedRangeIndexes))
-            return false;
-        if (!Objects.equals(combinationSetValuesTable, that.combinationSetValuesTable))
-            return false;
-        return Arrays.deepEquals(nonRepeatedRangeValuesFromNumbers, that.nonRepeatedRangeValuesFromNumbers);
+        // таблица наборов полностью определяется диапазонами, поэтому она не сравнивается
+        // и не строится ради сравнения, а способ хранения наборов не влияет на их нумерацию
+        return Objects.equals(nonRepeatedRangeIndexes, that.nonRepeatedRangeIndexes);
     }
 
     @Override
     public int hashCode() {
         int result = super.hashCode();
         result = 31 * result + (nonRepeatedRangeIndexes != null ? nonRepeatedRangeIndexes.hashCode() : 0);
-        result = 31 * result + (combinationSetValuesTable != null ? combinationSetValuesTable.hashCode() : 0);
-        result = 31 * result + Arrays.deepHashCode(nonRepeatedRangeValuesFromNumbers);
         return result;
     }
 }
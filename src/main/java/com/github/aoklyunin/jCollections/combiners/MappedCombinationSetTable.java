@@ -0,0 +1,265 @@
+package com.github.aoklyunin.jCollections.combiners;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Таблица чисел наборов комбинаций, слова которой хранятся не в куче, а в файле, отображённом в память.
+ * При построении числа дописываются в конец временного файла через небольшой буфер, а после завершения
+ * построения файл отображается в память участками и читается без копирования, так что в памяти
+ * остаются только страницы файла, закэшированные операционной системой. Временный файл создаётся
+ * в папке CombinationSetTableCache, если она задана, иначе в папке временных файлов, и удаляется
+ * сразу после отображения, отображённые участки остаются доступны, пока жива таблица.
+ * Ошибки ввода-вывода пробрасываются как UncheckedIOException
+ */
+public class MappedCombinationSetTable extends CombinationSetTable {
+    /**
+     * Наибольший размер одного отображаемого в память участка файла в байтах
+     */
+    private static final int MAP_CHUNK_SIZE = 1 << 30;
+    /**
+     * Размер буфера записи в байтах
+     */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    /**
+     * Канал временного файла, null, если построение таблицы завершено
+     */
+    @Nullable
+    private FileChannel channel;
+    /**
+     * Буфер записи, null, если построение таблицы завершено
+     */
+    @Nullable
+    private ByteBuffer writeBuffer;
+    /**
+     * Отображённые в память участки файла
+     */
+    @NotNull
+    private LongBuffer[] chunks = new LongBuffer[0];
+    /**
+     * Кол-во слов в одном участке, кратно кол-ву слов на число
+     */
+    private final int chunkWordCnt;
+
+    /**
+     * Конструктор пустой таблицы, которая строится во временном файле
+     *
+     * @param bitCnt кол-во комбинаций, из которых составляются наборы
+     */
+    public MappedCombinationSetTable(int bitCnt) {
+        super(bitCnt);
+        this.chunkWordCnt = getChunkWordCnt(stride);
+        try {
+            // таблицы бывают размером в несколько гигабайт, поэтому пишем их в папку кэша, если она задана
+            Path directory = CombinationSetTableCache.getDirectory();
+            Path path;
+            if (directory != null) {
+                Files.createDirectories(directory);
+                path = Files.createTempFile(directory, "combinationSets", ".cst");
+            } else
+                path = Files.createTempFile("combinationSets", ".cst");
+            this.channel = FileChannel.open(
+                    path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException("can not create combination set table file", e);
+        }
+        this.writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * Конструктор таблицы, отображающей в память уже записанный файл
+     *
+     * @param bitCnt   кол-во комбинаций, из которых составляются наборы
+     * @param path     файл
+     * @param position номер байта файла, с которого начинаются слова чисел
+     * @param size     кол-во чисел в таблице
+     */
+    MappedCombinationSetTable(int bitCnt, @NotNull Path path, long position, int size) throws IOException {
+        super(bitCnt);
+        this.chunkWordCnt = getChunkWordCnt(stride);
+        this.size = size;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            map(channel, position);
+        }
+    }
+
+    /**
+     * Получить кол-во слов в участке, вмещающем целое число чисел
+     *
+     * @param stride кол-во слов long, которое занимает одно число
+     * @return кол-во слов в участке
+     */
+    private static int getChunkWordCnt(int stride) {
+        return Math.max(1, MAP_CHUNK_SIZE / Long.BYTES / stride) * stride;
+    }
+
+    /**
+     * Отобразить слова чисел таблицы в память
+     *
+     * @param channel  канал файла
+     * @param position номер байта файла, с которого начинаются слова чисел
+     */
+    private void map(@NotNull FileChannel channel, long position) throws IOException {
+        long wordCnt = (long) size * stride;
+        chunks = new LongBuffer[(int) ((wordCnt + chunkWordCnt - 1) / chunkWordCnt)];
+        for (int i = 0; i < chunks.length; i++) {
+            long chunkWordFrom = (long) i * chunkWordCnt;
+            chunks[i] = channel.map(
+                    FileChannel.MapMode.READ_ONLY,
+                    position + chunkWordFrom * Long.BYTES,
+                    Math.min(chunkWordCnt, wordCnt - chunkWordFrom) * Long.BYTES
+            ).asLongBuffer();
+        }
+    }
+
+    /**
+     * Дописать слово в конец файла
+     *
+     * @param word слово
+     */
+    private void putWord(long word) {
+        if (writeBuffer == null)
+            throw new AssertionError("combination set table is already built");
+        if (!writeBuffer.hasRemaining())
+            flush();
+        writeBuffer.putLong(word);
+    }
+
+    /**
+     * Записать буфер записи в файл
+     */
+    private void flush() {
+        try {
+            writeBuffer.flip();
+            while (writeBuffer.hasRemaining())
+                channel.write(writeBuffer);
+            writeBuffer.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException("can not write combination set table file", e);
+        }
+    }
+
+    /**
+     * Добавить число набора в конец таблицы, числа должны добавляться по возрастанию
+     *
+     * @param value биты числа набора, записанные начиная с младших
+     */
+    @Override
+    void add(@NotNull long[] value) {
+        for (int i = 0; i < stride; i++)
+            putWord(i < value.length ? value[i] : 0);
+        size++;
+    }
+
+    /**
+     * Добавить число набора в конец таблицы, числа должны добавляться по возрастанию
+     *
+     * @param value число набора
+     */
+    @Override
+    void add(long value) {
+        putWord(value);
+        for (int i = 1; i < stride; i++)
+            putWord(0);
+        size++;
+    }
+
+    /**
+     * Добавить в конец таблицы все числа другой таблицы, её числа должны быть больше чисел этой таблицы
+     *
+     * @param table таблица с тем же кол-вом слов на число
+     */
+    @Override
+    void addAll(@NotNull CombinationSetTable table) {
+        checkStride(table);
+        for (long i = 0; i < (long) table.size * stride; i++)
+            putWord(table.getWord(i));
+        size += table.size;
+    }
+
+    /**
+     * Добавить в конец таблицы числа из буфера, они должны быть больше чисел этой таблицы
+     *
+     * @param buffer буфер, из которого читаются слова чисел, кол-во оставшихся в нём слов
+     *               должно быть кратно кол-ву слов на число
+     */
+    @Override
+    void addWords(@NotNull LongBuffer buffer) {
+        int cnt = buffer.remaining() / stride;
+        for (int i = 0; i < cnt * stride; i++)
+            putWord(buffer.get());
+        size += cnt;
+    }
+
+    /**
+     * Завершить построение таблицы: дописать буфер, отобразить файл в память и удалить его
+     */
+    @Override
+    void trimToSize() {
+        if (channel == null)
+            return;
+        flush();
+        writeBuffer = null;
+        try {
+            map(channel, 0);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("can not map combination set table file", e);
+        }
+        channel = null;
+    }
+
+    /**
+     * Записать слова чисел таблицы в буфер
+     *
+     * @param from   номер первого записываемого числа
+     * @param cnt    кол-во записываемых чисел
+     * @param buffer буфер, в который записываются слова чисел
+     */
+    @Override
+    void putWords(int from, int cnt, @NotNull LongBuffer buffer) {
+        long wordFrom = (long) from * stride;
+        long wordTo = wordFrom + (long) cnt * stride;
+        while (wordFrom < wordTo) {
+            int chunk = (int) (wordFrom / chunkWordCnt);
+            LongBuffer src = chunks[chunk].duplicate();
+            src.position((int) (wordFrom - (long) chunk * chunkWordCnt));
+            src.limit((int) Math.min(chunkWordCnt, wordTo - (long) chunk * chunkWordCnt));
+            wordFrom += src.remaining();
+            buffer.put(src);
+        }
+    }
+
+    /**
+     * Получить слово чисел таблицы
+     *
+     * @param wordIndex номер слова, у числа с номером index слова идут с номера index * stride
+     * @return слово
+     */
+    @Override
+    protected long getWord(long wordIndex) {
+        if (channel != null)
+            throw new AssertionError("combination set table is not built yet");
+        return chunks[(int) (wordIndex / chunkWordCnt)].get((int) (wordIndex % chunkWordCnt));
+    }
+
+    /**
+     * Строковое представление объекта вида:
+     *
+     * @return "MappedCombinationSetTable{size, stride}"
+     */
+    @Override
+    public String toString() {
+        return "MappedCombinationSetTable{" + size + ", " + stride + '}';
+    }
+}
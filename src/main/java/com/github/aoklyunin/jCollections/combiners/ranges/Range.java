@@ -149,6 +149,16 @@ public abstract class Range {
         return currentValue;
     }
 
+    /**
+     * Получить номер шага текущего значения интервала
+     *
+     * @return номер шага текущего значения интервала
+     */
+    @JsonIgnore
+    public int getCurrentStepNum() {
+        return currentStepNum;
+    }
+
     /**
      * Получить название интервала
      *
@@ -211,6 +221,19 @@ public abstract class Range {
         return value / (stepCnt + 1);
     }
 
+    /**
+     * Получить значение из свёртки
+     *
+     * @param value     свёртка из которого получается значение нового элемента развёртки
+     *                  как остаток от деления числа на stepCnt+1
+     * @param deconvArr массив развёрнутых значений
+     * @return свёртка с извлечённым значением диапазона
+     */
+    public long pullFrom(long value, @NotNull List<Object> deconvArr) {
+        deconvArr.add(getValue((int) (value % (stepCnt + 1))));
+        return value / (stepCnt + 1);
+    }
+
     /**
      * Добавить значение в свёртку
      *
@@ -223,6 +246,18 @@ public abstract class Range {
         return value * (stepCnt + 1) + getStepNum(Objects.requireNonNull(object));
     }
 
+    /**
+     * Добавить значение в свёртку
+     *
+     * @param value  свёртка в которую нужно добавить значение, его нужно умножить на stepCnt+1 и прибавить номер
+     *               текущего шага
+     * @param object значение, которое нужно добавить в свёртку
+     * @return новая свёртка
+     */
+    public long pushTo(long value, @NotNull Object object) {
+        return value * (stepCnt + 1) + getStepNum(Objects.requireNonNull(object));
+    }
+
     /**
      * Добавить значение в свёртку
      *
@@ -11,6 +11,15 @@ import java.util.Objects;
  * Символьный диапазон
  */
 public class CharRange extends PrimitiveRange {
+    /**
+     * Минимальное значение диапазона
+     */
+    private final char charMin;
+    /**
+     * Шаг диапазона
+     */
+    private final int charStep;
+
     /**
      * Конструктор диапазона примитивного типа
      *
@@ -34,6 +43,8 @@ public class CharRange extends PrimitiveRange {
         );
         this.size = max - min;
         this.step = (int) this.size / this.stepCnt;
+        this.charMin = min;
+        this.charStep = (int) this.step;
         if (min >= max)
             throw new AssertionError(this + " min>=max");
         if (this.stepCnt > (int) this.size)
@@ -48,6 +59,18 @@ public class CharRange extends PrimitiveRange {
      */
     public CharRange(@NotNull CharRange range) {
         super(Objects.requireNonNull(range));
+        this.charMin = range.charMin;
+        this.charStep = range.charStep;
+    }
+
+    /**
+     * Получить значение по номеру шага без упаковки в объект
+     *
+     * @param stepNum номер шага
+     * @return значение интервала
+     */
+    public char getChar(int stepNum) {
+        return (char) (charMin + stepNum * charStep);
     }
 
     /**
@@ -11,6 +11,14 @@ import java.util.Objects;
  * Вещественный диапазон
  */
 public class DoubleRange extends PrimitiveRange {
+    /**
+     * Минимальное значение диапазона
+     */
+    private final double doubleMin;
+    /**
+     * Шаг диапазона
+     */
+    private final double doubleStep;
 
 
     /**
@@ -36,6 +44,8 @@ public class DoubleRange extends PrimitiveRange {
         );
         this.size = max - min;
         this.step = (double) this.size / this.stepCnt;
+        this.doubleMin = min;
+        this.doubleStep = (double) this.step;
         if (min >= max)
             throw new AssertionError(this + " min>=max");
         setCurrentValue(min);
@@ -48,6 +58,18 @@ public class DoubleRange extends PrimitiveRange {
      */
     public DoubleRange(@NotNull DoubleRange range) {
         super(Objects.requireNonNull(range));
+        this.doubleMin = range.doubleMin;
+        this.doubleStep = range.doubleStep;
+    }
+
+    /**
+     * Получить значение по номеру шага без упаковки в объект
+     *
+     * @param stepNum номер шага
+     * @return значение интервала
+     */
+    public double getDouble(int stepNum) {
+        return stepNum * doubleStep + doubleMin;
     }
 
     /**
@@ -11,6 +11,15 @@ import java.util.Objects;
  * Вещественный диапазон
  */
 public class FloatRange extends PrimitiveRange {
+    /**
+     * Минимальное значение диапазона
+     */
+    private final float floatMin;
+    /**
+     * Шаг диапазона
+     */
+    private final float floatStep;
+
     /**
      * Конструктор диапазона примитивного типа
      *
@@ -31,6 +40,8 @@ public class FloatRange extends PrimitiveRange {
         super(Objects.requireNonNull(min), Objects.requireNonNull(max), stepCnt, name, enabled, canRepeatValue);
         this.size = max - min;
         this.step = (float) this.size / this.stepCnt;
+        this.floatMin = min;
+        this.floatStep = (float) this.step;
         if (min >= max)
             throw new AssertionError(this + " min>=max");
         setCurrentValue(min);
@@ -43,6 +54,18 @@ public class FloatRange extends PrimitiveRange {
      */
     public FloatRange(@NotNull FloatRange range) {
         super(Objects.requireNonNull(range));
+        this.floatMin = range.floatMin;
+        this.floatStep = range.floatStep;
+    }
+
+    /**
+     * Получить значение по номеру шага без упаковки в объект
+     *
+     * @param stepNum номер шага
+     * @return значение интервала
+     */
+    public float getFloat(int stepNum) {
+        return stepNum * floatStep + floatMin;
     }
 
     /**
@@ -11,6 +11,14 @@ import java.util.Objects;
  * Integer диапазон
  */
 public class IntRange extends PrimitiveRange {
+    /**
+     * Минимальное значение диапазона
+     */
+    private final int intMin;
+    /**
+     * Шаг диапазона
+     */
+    private final int intStep;
 
     /**
      * Конструктор диапазона примитивного типа
@@ -35,6 +43,8 @@ public class IntRange extends PrimitiveRange {
         );
         this.size = max - min;
         this.step = (int) this.size / this.stepCnt;
+        this.intMin = min;
+        this.intStep = (int) this.step;
         if (min >= max)
             throw new AssertionError(this + " min>=max");
         if (this.stepCnt > (int) this.size)
@@ -49,6 +59,18 @@ public class IntRange extends PrimitiveRange {
      */
     public IntRange(@NotNull IntRange range) {
         super(Objects.requireNonNull(range));
+        this.intMin = range.intMin;
+        this.intStep = range.intStep;
+    }
+
+    /**
+     * Получить значение по номеру шага без упаковки в объект
+     *
+     * @param stepNum номер шага
+     * @return значение интервала
+     */
+    public int getInt(int stepNum) {
+        return stepNum * intStep + intMin;
     }
 
     /**
@@ -12,6 +12,14 @@ import java.util.Objects;
  * Integer диапазон
  */
 public class LongRange extends PrimitiveRange {
+    /**
+     * Минимальное значение диапазона
+     */
+    private final long longMin;
+    /**
+     * Шаг диапазона
+     */
+    private final long longStep;
 
     /**
      * Конструктор диапазона примитивного типа
@@ -36,6 +44,8 @@ public class LongRange extends PrimitiveRange {
         );
         this.size = max - min;
         this.step = (long) this.size / this.stepCnt;
+        this.longMin = min;
+        this.longStep = (long) this.step;
         if (min >= max)
             throw new AssertionError(this + " min>=max");
         if (this.stepCnt > (long) this.size)
@@ -50,6 +60,18 @@ public class LongRange extends PrimitiveRange {
      */
     public LongRange(@NotNull LongRange range) {
         super(Objects.requireNonNull(range));
+        this.longMin = range.longMin;
+        this.longStep = range.longStep;
+    }
+
+    /**
+     * Получить значение по номеру шага без упаковки в объект
+     *
+     * @param stepNum номер шага
+     * @return значение интервала
+     */
+    public long getLong(int stepNum) {
+        return stepNum * longStep + longMin;
     }
 
     /**
@@ -1,3 +1,7 @@
+import com.github.aoklyunin.jCollections.Async;
+import com.github.aoklyunin.jCollections.AtomicBigInteger;
+import com.github.aoklyunin.jCollections.CancellationToken;
+import com.github.aoklyunin.jCollections.Progress;
 import com.github.aoklyunin.jCollections.combiners.*;
 import com.github.aoklyunin.jCollections.combiners.ranges.Range;
 import com.github.aoklyunin.jCollections.combiners.ranges.primitive.CharRange;
@@ -5,13 +9,199 @@ import com.github.aoklyunin.jCollections.combiners.ranges.primitive.IntRange;
 import org.junit.jupiter.api.Test;
 
 
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class TestCombiner {
 
+    @Test
+    public void testAtomicBigInteger() throws InterruptedException {
+        BigInteger max = BigInteger.valueOf(Long.MAX_VALUE);
+        AtomicBigInteger value = new AtomicBigInteger(max.subtract(BigInteger.valueOf(2)));
+        assert value.incrementAndGet().equals(max.subtract(BigInteger.ONE));
+        assert value.getAndAdd(3).equals(max.subtract(BigInteger.ONE));
+        assert value.get().equals(max.add(BigInteger.valueOf(2)));
+        assert value.addAndGet(max.negate()).equals(BigInteger.valueOf(2));
+        assert value.compareAndSet(BigInteger.valueOf(2), max.multiply(max));
+        assert !value.compareAndSet(BigInteger.valueOf(2), BigInteger.ZERO);
+        assert value.compareAndSet(max.multiply(max), BigInteger.valueOf(Long.MIN_VALUE));
+        assert value.addAndGet(BigInteger.ONE).equals(BigInteger.valueOf(Long.MIN_VALUE + 1));
+        value.set(max);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    value.increment();
+                    value.getAndAdd(-1);
+                    value.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assert value.get().equals(max.add(BigInteger.valueOf(40_000)));
+        value.set(BigInteger.ZERO);
+        assert value.equals(new AtomicBigInteger(BigInteger.ZERO));
+    }
+
+    @Test
+    public void testClaimBatch() throws InterruptedException {
+        Combiner combiner = new Combiner(Range.of(0, 100, 20), Range.of('A', 'Z', 5), Range.of(-15.0, 20.0, 5));
+        int cnt = combiner.getCombinationCnt().intValue();
+        AtomicIntegerArray visits = new AtomicIntegerArray(cnt);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                CombinationCursor cursor = new CombinationCursor(combiner);
+                for (CombinationBatch batch = combiner.claimBatch(7); !batch.isEmpty(); batch = combiner.claimBatch(7)) {
+                    cursor.seek(batch.getLongFrom());
+                    for (long i = batch.getLongFrom(); i < batch.getLongTo(); i++) {
+                        assert cursor.getCombination().equals(combiner.deconv(i));
+                        visits.incrementAndGet((int) i);
+                        cursor.next();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        for (int i = 0; i < cnt; i++)
+            assert visits.get(i) == 1;
+    }
+
+    @Test
+    public void testParallelForEach() {
+        AtomicIntegerArray visits = new AtomicIntegerArray(1000);
+        // вложенные циклы выполняются в том же пуле
+        Async.parallelForEach(10, (i) -> Async.parallelForEach(100, (j) -> visits.incrementAndGet(i * 100 + j)));
+        Async.parallelForEach(BigInteger.valueOf(1000), (i) -> visits.incrementAndGet(i.intValue()), 3);
+        Async.parallelForEachLong(1000, (i) -> visits.incrementAndGet((int) i));
+        // если кол-во шагов помещается в long, то начало всех отрезков равно нулю
+        Async.parallelForEach(BigInteger.valueOf(1000), (base, offset) -> {
+            assert base.signum() == 0;
+            visits.incrementAndGet((int) offset);
+        });
+        for (int i = 0; i < visits.length(); i++)
+            assert visits.get(i) == 4;
+        // у каждого отрезка свой накопитель, накопители сливаются по порядку
+        List<Long> squares = Async.parallelCollect(1000, ArrayList::new, (lst, i) -> lst.add(i * i), (left, right) -> {
+            left.addAll(right);
+            return left;
+        }, 3);
+        assert squares.size() == 1000;
+        for (int i = 0; i < squares.size(); i++)
+            assert squares.get(i) == (long) i * i;
+        assert Async.parallelReduce(1000, 0, (i) -> i * i, Long::sum) == 332833500;
+        assert Async.parallelReduce(0, 7, (i) -> i, Long::sum) == 7;
+        // исключение шага цикла получает вызывающий
+        try {
+            Async.parallelForEach(100, (i) -> {
+                if (i == 57)
+                    throw new IllegalStateException("step " + i);
+            });
+            assert false;
+        } catch (IllegalStateException e) {
+            assert e.getMessage().contains("step 57");
+        }
+    }
+
+    @Test
+    public void testParallelFind() {
+        OptionalLong first = Async.parallelFindFirst(1_000_000, i -> i % 7919 == 7918 || i == 500_000);
+        assert first.isPresent() && first.getAsLong() == 7918;
+        OptionalLong any = Async.parallelFindAny(1_000_000, i -> i % 7919 == 7918);
+        assert any.isPresent() && any.getAsLong() % 7919 == 7918;
+        assert !Async.parallelFindFirst(100_000, i -> false).isPresent();
+        CancellationToken cancelled = new CancellationToken();
+        cancelled.cancel();
+        assert !Async.parallelFindAny(1_000_000, i -> i == 999_999, cancelled).isPresent();
+        CancellationToken expired = new CancellationToken(0, TimeUnit.NANOSECONDS);
+        assert expired.isCancelled();
+        assert !Async.parallelFindFirst(1_000_000, i -> true, expired).isPresent();
+        AtomicLong steps = new AtomicLong();
+        CancellationToken token = new CancellationToken();
+        Async.parallelForEachLong(10_000_000, i -> {
+            if (steps.incrementAndGet() == 1000)
+                token.cancel();
+        }, token);
+        assert token.isCancelled() && steps.get() < 10_000_000;
+    }
+
+    @Test
+    public void testBlockingForEach() {
+        AtomicIntegerArray visited = new AtomicIntegerArray(2000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Async.blockingForEachLong(visited.length(), i -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            visited.incrementAndGet((int) i);
+            running.decrementAndGet();
+        }, 16);
+        for (int i = 0; i < visited.length(); i++)
+            assert visited.get(i) == 1;
+        assert maxRunning.get() <= 16;
+        try {
+            Async.blockingForEachLong(1000, i -> {
+                if (i == 321)
+                    throw new IllegalStateException("step " + i);
+            });
+            assert false;
+        } catch (IllegalStateException e) {
+            assert e.getMessage().equals("step 321");
+        }
+        Combiner combiner = new Combiner(Range.of(0, 100, 20), Range.of('A', 'Z', 5));
+        Set<List<Object>> combinations = ConcurrentHashMap.newKeySet();
+        combiner.blockingForEach(combinations::add, 4);
+        assert combinations.size() == combiner.getCombinationCnt().intValue();
+        assert combinations.contains(combiner.deconv(7));
+    }
+
+    @Test
+    public void testStream() {
+        Combiner combiner = new Combiner(Range.of(0, 100, 20), Range.of('A', 'Z', 5), Range.of(-15.0, 20.0, 5));
+        List<List<Object>> combinations = combiner.parallelStream().collect(Collectors.toList());
+        assert combinations.size() == combiner.getCombinationCnt().intValue();
+        for (int i = 0; i < combinations.size(); i++)
+            assert combinations.get(i).equals(combiner.deconv(i));
+        assert combiner.stream().skip(5).findFirst().get().equals(combiner.deconv(5));
+    }
+
+    @Test
+    public void testGammaStream() {
+        GammaCombiner combiner = new GammaCombiner(
+                new CharRange('A', 'C', null, null, true, true),
+                new IntRange(2, 4, null, null, true, false),
+                new IntRange(-3, -1, null, null, true, true)
+        );
+        List<List<List<?>>> combinationSets = combiner.parallelGammaStream().collect(Collectors.toList());
+        assert combinationSets.size() == combiner.getCombinationCnt().intValue();
+        for (int i = 0; i < combinationSets.size(); i++)
+            assert combinationSets.get(i).equals(combiner.gammaDeconv(BigInteger.valueOf(i)));
+    }
+
     @Test
     public void testAlphaDeconv1() {
         AlphaCombiner combiner = new AlphaCombiner(2);
@@ -30,6 +220,25 @@ public class TestCombiner {
     }
 
 
+    @Test
+    public void testAlphaIterator() {
+        AlphaCombiner combiner = new AlphaCombiner(Range.of('A', 'C'), Range.of(2, 4));
+        Iterator<List<List<?>>> it = combiner.alphaIterator();
+        for (BigInteger i = BigInteger.ZERO; i.compareTo(combiner.getCombinationCnt()) < 0; i = i.add(BigInteger.ONE)) {
+            assert it.hasNext();
+            List<List<?>> combinationSets = it.next();
+            assert combinationSets.equals(combiner.alphaDeconv(i));
+            assert combiner.longAlphaConv(combinationSets) == i.longValue();
+        }
+        assert !it.hasNext();
+        // наборы из комбинаций с номерами больше 63
+        AlphaCombiner bigCombiner = new AlphaCombiner(Range.of(0, 9), Range.of(0, 9));
+        BigInteger value = BigInteger.ONE.shiftLeft(98).setBit(63).setBit(64).setBit(1);
+        List<List<?>> combinationSets = bigCombiner.alphaDeconv(value);
+        assert combinationSets.size() == 4;
+        assert bigCombiner.alphaConv(combinationSets).equals(value);
+    }
+
     private void testAlphaCombiner(AlphaCombiner combiner) {
         BigInteger cnt = combiner.getCombinationCnt();
         for (BigInteger i = BigInteger.ZERO; i.compareTo(cnt) < 0; i = i.add(BigInteger.ONE)) {
@@ -57,6 +266,26 @@ public class TestCombiner {
         // System.out.println((currentTimeMillis() - start));
     }
 
+    @Test
+    public void testBetaCombinationCnt() {
+        BetaCombiner combiner = new BetaCombiner(
+                Range.of(5L, 8L, true),
+                Range.of('A', 'C', true)
+        );
+        // каждое из 4 значений главного диапазона либо отсутствует, либо в паре с одним из 3 значений
+        assert combiner.getCombinationCnt().equals(BigInteger.valueOf(256));
+        testBetaCombiner(combiner);
+        BetaCombiner bigCombiner = new BetaCombiner(
+                Range.of(0L, 99L, true),
+                Range.of('A', 'Z', true)
+        );
+        assert bigCombiner.getCombinationCnt().equals(BigInteger.valueOf(27).pow(100));
+        BigInteger value = bigCombiner.getCombinationCnt().subtract(BigInteger.ONE);
+        List<List<?>> combinationSets = bigCombiner.betaDeconv(value);
+        assert combinationSets.size() == 100;
+        assert bigCombiner.betaConv(combinationSets).equals(value);
+    }
+
     private void testBetaCombiner(BetaCombiner combiner) {
         for (BigInteger i = BigInteger.ZERO; i.compareTo(combiner.getCombinationCnt()) < 0; i = i.add(BigInteger.ONE)) {
             List<List<?>> decoved = combiner.betaDeconv(i);
@@ -108,6 +337,221 @@ public class TestCombiner {
     }
 
 
+    @Test
+    public void testGammaSetsOrder() {
+        GammaCombiner combiner = new GammaCombiner(
+                new CharRange('A', 'C', null, null, true, true),
+                new IntRange(2, 3, null, null, true, false),
+                new IntRange(-2, -1, null, null, true, true)
+        );
+        // полный перебор: у AlphaCombiner 2^11 - 1 номер, цикл проверяет все 2^11 подмножеств
+        BigInteger alphaCombinationCnt = new AlphaCombiner(combiner.getRanges()).getCombinationCnt();
+        int nonRepeatedRangeNum = combiner.getNonRepeatedRangeIndexes().get(0);
+        List<BigInteger> expected = new ArrayList<>();
+        for (BigInteger i = BigInteger.ZERO; i.compareTo(alphaCombinationCnt) <= 0; i = i.add(BigInteger.ONE)) {
+            HashSet<Object> values = new HashSet<>();
+            boolean valid = true;
+            for (List<?> combination : combiner.alphaDeconv(i))
+                valid &= values.add(combination.get(nonRepeatedRangeNum));
+            if (valid)
+                expected.add(i);
+        }
+        assert combiner.getCombinationCnt().intValue() == expected.size();
+        for (int i = 0; i < expected.size(); i++)
+            assert combiner.alphaConv(combiner.gammaDeconv(BigInteger.valueOf(i))).equals(expected.get(i));
+        // перебор наборов в переиспользуемый массив номеров комбинаций
+        List<BigInteger> walked = new ArrayList<>();
+        combiner.gammaForEach((combinationNumbers, cnt) -> {
+            BigInteger value = BigInteger.ZERO;
+            for (int j = 0; j < cnt; j++)
+                value = value.setBit(combinationNumbers[j]);
+            walked.add(value);
+        });
+        assert walked.equals(expected);
+    }
+
+    @Test
+    public void testCombinationSetRanking() {
+        List<Range> ranges = new ArrayList<>();
+        ranges.add(new IntRange(0, 1, null, null, true, true));
+        ranges.add(new IntRange(0, 2, null, null, true, false));
+        ranges.add(new IntRange(0, 3, null, null, true, false));
+        GammaCombiner tableCombiner = new GammaCombiner(ranges);
+        GammaCombiner rankingCombiner = new GammaCombiner(CombinationSetStorage.RANKING, ranges);
+        testGammaCombiner(rankingCombiner);
+        assert rankingCombiner.getCombinationCnt().equals(tableCombiner.getCombinationCnt());
+        for (BigInteger i = BigInteger.ZERO; i.compareTo(tableCombiner.getCombinationCnt()) < 0; i = i.add(BigInteger.ONE))
+            assert rankingCombiner.gammaDeconv(i).equals(tableCombiner.gammaDeconv(i));
+
+        FixedSizeCombiner fixedSizeTableCombiner = new FixedSizeCombiner(2, ranges);
+        FixedSizeCombiner fixedSizeRankingCombiner = new FixedSizeCombiner(2, CombinationSetStorage.RANKING, ranges);
+        testFixedSizeGammaCombiner(fixedSizeRankingCombiner);
+        assert fixedSizeRankingCombiner.getCombinationCnt().equals(fixedSizeTableCombiner.getCombinationCnt());
+        for (BigInteger i = BigInteger.ZERO; i.compareTo(fixedSizeTableCombiner.getCombinationCnt()) < 0; i = i.add(BigInteger.ONE))
+            assert fixedSizeRankingCombiner.gammaDeconv(i).equals(fixedSizeTableCombiner.gammaDeconv(i));
+    }
+
+    /**
+     * Проверить, что у переборщиков одни и те же наборы комбинаций в одном и том же порядке
+     *
+     * @param combiner      переборщик
+     * @param otherCombiner другой переборщик
+     * @return флаг, одинаковы ли наборы комбинаций
+     */
+    private static boolean hasSameCombinationSets(GammaCombiner combiner, GammaCombiner otherCombiner) {
+        if (!combiner.getCombinationCnt().equals(otherCombiner.getCombinationCnt()))
+            return false;
+        for (BigInteger i = BigInteger.ZERO; i.compareTo(combiner.getCombinationCnt()) < 0; i = i.add(BigInteger.ONE)) {
+            if (!combiner.unrank(i).equals(otherCombiner.unrank(i)))
+                return false;
+        }
+        return true;
+    }
+
+    @Test
+    public void testParallelTableBuild() {
+        List<Range> ranges = new ArrayList<>();
+        ranges.add(new IntRange(0, 4, null, null, true, false));
+        ranges.add(new IntRange(0, 3, null, null, true, true));
+        // 19 комбинаций, из которых составляются наборы: таблица строится параллельно
+        GammaCombiner combiner = new GammaCombiner(ranges);
+        GammaCombiner otherCombiner = new GammaCombiner(ranges);
+        // сравнение не строит таблицы
+        assert combiner.equals(otherCombiner) && combiner.hashCode() == otherCombiner.hashCode();
+        assert !combiner.isInitialized() && !otherCombiner.isInitialized();
+        assert hasSameCombinationSets(combiner, otherCombiner);
+        GammaCombiner rankingCombiner = new GammaCombiner(CombinationSetStorage.RANKING, ranges);
+        assert combiner.getCombinationCnt().equals(rankingCombiner.getCombinationCnt());
+        for (BigInteger i = BigInteger.ZERO; i.compareTo(combiner.getCombinationCnt()) < 0; i = i.add(BigInteger.ONE))
+            assert combiner.unrank(i).equals(rankingCombiner.unrank(i));
+    }
+
+    @Test
+    public void testProgress() {
+        List<Progress> reports = new ArrayList<>();
+        AtomicInteger calls = new AtomicInteger();
+        Progress progress = new Progress(p -> {
+            calls.incrementAndGet();
+            if (p.isFinished())
+                reports.add(p);
+        }, 0, TimeUnit.SECONDS);
+        Async.parallelForEachLong(100_000, i -> {
+        }, progress);
+        assert progress.isFinished() && progress.getDone() == 100_000 && progress.getTotal() == 100_000;
+        assert progress.getFraction() == 1 && progress.getEta(TimeUnit.SECONDS) == 0;
+        assert reports.size() == 1 && calls.get() > 1;
+        List<Range> ranges = new ArrayList<>();
+        ranges.add(new IntRange(0, 4, null, null, true, false));
+        ranges.add(new IntRange(0, 3, null, null, true, true));
+        GammaCombiner combiner = new GammaCombiner(ranges);
+        combiner.setBuildProgress(progress);
+        combiner.initAsync().join();
+        assert reports.size() == 2;
+        assert progress.getDone() == combiner.getCombinationCnt().longValue();
+        assert progress.getTotal() == progress.getDone();
+    }
+
+    @Test
+    public void testMappedTable() {
+        List<Range> ranges = new ArrayList<>();
+        ranges.add(new IntRange(0, 10, null, null, true, false));
+        ranges.add(new IntRange(0, 6, null, null, true, true));
+        // 76 комбинаций, из которых составляются наборы: числа наборов занимают два слова
+        FixedSizeCombiner tableCombiner = new FixedSizeCombiner(2, ranges);
+        FixedSizeCombiner mappedCombiner = new FixedSizeCombiner(2, CombinationSetStorage.MAPPED, ranges);
+        assert mappedCombiner.equals(tableCombiner);
+        assert hasSameCombinationSets(mappedCombiner, tableCombiner);
+        for (BigInteger i = BigInteger.ZERO; i.compareTo(tableCombiner.getCombinationCnt()) < 0; i = i.add(BigInteger.ONE)) {
+            BigInteger value = mappedCombiner.unrank(i);
+            assert value.equals(tableCombiner.unrank(i));
+            assert mappedCombiner.rank(value).equals(i);
+            assert mappedCombiner.gammaDeconv(i).equals(tableCombiner.gammaDeconv(i));
+        }
+    }
+
+    @Test
+    public void testTableCache() throws IOException {
+        Path directory = Files.createTempDirectory("combinationSetTables");
+        CombinationSetTableCache.setDirectory(directory);
+        try {
+            List<Range> ranges = new ArrayList<>();
+            ranges.add(new IntRange(0, 4, null, null, true, false));
+            ranges.add(new IntRange(0, 3, null, null, true, true));
+            FixedSizeCombiner combiner = new FixedSizeCombiner(3, ranges);
+            // таблица строится и сохраняется при первом обращении к ней
+            assert Files.list(directory).count() == 0;
+            combiner.initAsync().join();
+            List<Path> paths = Files.list(directory).collect(Collectors.toList());
+            assert paths.size() == 1;
+            byte[] bytes = Files.readAllBytes(paths.get(0));
+            // таблица загружается из файла
+            byte[] changedBytes = bytes.clone();
+            changedBytes[64] ^= 1;
+            Files.write(paths.get(0), changedBytes);
+            assert !hasSameCombinationSets(new FixedSizeCombiner(3, ranges), combiner);
+            // файл другой версии строится заново и перезаписывается
+            changedBytes[8] ^= 1;
+            Files.write(paths.get(0), changedBytes);
+            assert hasSameCombinationSets(new FixedSizeCombiner(3, ranges), combiner);
+            assert Arrays.equals(Files.readAllBytes(paths.get(0)), bytes);
+            // таблица в файле читается прямо из кэша
+            assert hasSameCombinationSets(new FixedSizeCombiner(3, CombinationSetStorage.MAPPED, ranges), combiner);
+            // у других параметров свой файл
+            FixedSizeCombiner otherCombiner = new FixedSizeCombiner(2, ranges);
+            assert otherCombiner.getCombinationCnt().equals(
+                    new FixedSizeCombiner(2, CombinationSetStorage.RANKING, ranges).getCombinationCnt()
+            );
+            assert !otherCombiner.isInitialized();
+            otherCombiner.initAsync().join();
+            assert otherCombiner.isInitialized();
+            assert Files.list(directory).count() == 2;
+            // таблица в файле строится во временном файле в папке кэша, который удаляется после построения
+            new FixedSizeCombiner(1, CombinationSetStorage.MAPPED, ranges).initAsync().join();
+            assert Files.list(directory).noneMatch(path -> path.getFileName().toString().startsWith("combinationSets"));
+            assert Files.list(directory).count() == 3;
+        } finally {
+            CombinationSetTableCache.setDirectory(null);
+            for (Path path : Files.list(directory).collect(Collectors.toList()))
+                Files.delete(path);
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Переборщик с открытой проверкой комбинации
+     */
+    private static class CheckedGammaCombiner extends GammaCombiner {
+        CheckedGammaCombiner(CombinationSetStorage combinationSetStorage, List<Range> ranges) {
+            super(combinationSetStorage, ranges);
+        }
+
+        @SuppressWarnings("deprecation")
+        boolean check(BigInteger combinationNumber) {
+            return checkCombination(combinationNumber);
+        }
+    }
+
+    @Test
+    public void testCheckCombinationMasks() {
+        List<Range> ranges = new ArrayList<>();
+        ranges.add(new IntRange(0, 4, null, null, true, false));
+        ranges.add(new IntRange(0, 3, null, null, true, false));
+        ranges.add(new IntRange(0, 1, null, null, true, true));
+        CheckedGammaCombiner tableCombiner = new CheckedGammaCombiner(CombinationSetStorage.TABLE, ranges);
+        CheckedGammaCombiner rankingCombiner = new CheckedGammaCombiner(CombinationSetStorage.RANKING, ranges);
+        // 39 комбинаций, из которых составляются наборы: проверяем наборы из младших 12 комбинаций
+        assert IntStream.range(0, 1 << 12).allMatch(i -> {
+            BigInteger value = BigInteger.valueOf(i);
+            boolean valid = tableCombiner.rank(value).signum() >= 0;
+            return tableCombiner.check(value) == valid && rankingCombiner.check(value) == valid;
+        });
+        // наборы со старшими комбинациями не помещаются в long
+        BigInteger value = BigInteger.ONE.shiftLeft(38).setBit(0);
+        assert tableCombiner.check(value) == tableCombiner.rank(value).signum() >= 0;
+        assert tableCombiner.check(value.setBit(1)) == tableCombiner.rank(value.setBit(1)).signum() >= 0;
+        assert !tableCombiner.check(value.setBit(1).setBit(2).setBit(3).setBit(4).setBit(5));
+    }
+
     private void testGammaCombiner(GammaCombiner combiner) {
         for (BigInteger i = BigInteger.ZERO; i.compareTo(combiner.getCombinationCnt()) < 0; i = i.add(BigInteger.ONE)) {
             List<List<?>> decoved = combiner.gammaDeconv(i);
@@ -161,6 +605,44 @@ public class TestCombiner {
         //  System.out.println((currentTimeMillis() - start));
     }
 
+    @Test
+    public void testFixedSizeSubsets() {
+        List<Range> ranges = new ArrayList<>();
+        ranges.add(new CharRange('A', 'C', null, null, true, true));
+        ranges.add(new IntRange(-3, 0, null, null, true, true));
+        FixedSizeCombiner tableCombiner = new FixedSizeCombiner(3, ranges);
+        FixedSizeCombiner rankingCombiner = new FixedSizeCombiner(3, CombinationSetStorage.RANKING, ranges);
+        // 11 комбинаций, из которых составляются наборы
+        assert tableCombiner.getCombinationCnt().equals(BigInteger.valueOf(165));
+        assert rankingCombiner.getCombinationCnt().equals(BigInteger.valueOf(165));
+        BigInteger prevValue = BigInteger.ONE.negate();
+        for (BigInteger i = BigInteger.ZERO; i.compareTo(tableCombiner.getCombinationCnt()) < 0; i = i.add(BigInteger.ONE)) {
+            BigInteger value = tableCombiner.unrank(i);
+            assert value.bitCount() == 3 && value.compareTo(prevValue) > 0;
+            assert rankingCombiner.unrank(i).equals(value);
+            assert rankingCombiner.rank(value).equals(i);
+            prevValue = value;
+        }
+        assert tableCombiner.rank(BigInteger.valueOf(3)).equals(BigInteger.ONE.negate());
+    }
+
+    @Test
+    public void testPackedTable() {
+        List<Range> ranges = new ArrayList<>();
+        ranges.add(new IntRange(0, 10, null, null, true, false));
+        ranges.add(new IntRange(0, 5, null, null, true, true));
+        // 65 комбинаций, из которых составляются наборы: числа наборов не помещаются в long
+        FixedSizeCombiner tableCombiner = new FixedSizeCombiner(2, ranges);
+        FixedSizeCombiner rankingCombiner = new FixedSizeCombiner(2, CombinationSetStorage.RANKING, ranges);
+        assert tableCombiner.getCombinationCnt().equals(rankingCombiner.getCombinationCnt());
+        for (BigInteger i = BigInteger.ZERO; i.compareTo(tableCombiner.getCombinationCnt()) < 0; i = i.add(BigInteger.ONE)) {
+            BigInteger value = tableCombiner.unrank(i);
+            assert rankingCombiner.unrank(i).equals(value);
+            assert tableCombiner.rank(value).equals(i);
+        }
+        assert tableCombiner.rank(BigInteger.ONE.shiftLeft(64).setBit(9)).equals(BigInteger.ONE.negate());
+    }
+
     private void testFixedSizeGammaCombiner(FixedSizeCombiner combiner) {
         for (BigInteger i = BigInteger.ZERO; i.compareTo(combiner.getCombinationCnt()) < 0; i = i.add(BigInteger.ONE)) {
             List<List<?>> decoved = combiner.gammaDeconv(i);
@@ -198,6 +680,28 @@ public class TestCombiner {
         testForEachCombiner(combiner);
     }
 
+    @Test
+    public void testForEachIterator() {
+        List<Range> ranges = new ArrayList<>();
+        ranges.add(new CharRange('A', 'D', null, null, true, true));
+        ranges.add(new IntRange(-3, -1, null, null, true, true));
+        ranges.add(new IntRange(2, 5, null, null, true, false));
+        ForEachCombiner combiner = new ForEachCombiner(ranges);
+        assert combiner.mainRange == ranges.get(0);
+        // каждому из 4 значений главного диапазона соответствует своя комбинация
+        assert combiner.getCombinationSetSize() == 4;
+        assert combiner.getCombinationCnt().equals(
+                new FixedSizeCombiner(4, ranges.subList(1, ranges.size())).getCombinationCnt()
+        );
+        testForEachCombiner(combiner);
+        Iterator<List<List<?>>> it = combiner.gammaIterator();
+        for (BigInteger i = BigInteger.ZERO; i.compareTo(combiner.getCombinationCnt()) < 0; i = i.add(BigInteger.ONE)) {
+            assert it.hasNext();
+            assert it.next().equals(combiner.gammaDeconv(i));
+        }
+        assert !it.hasNext();
+    }
+
     private void testForEachCombiner(ForEachCombiner combiner) {
         for (BigInteger i = BigInteger.ZERO; i.compareTo(combiner.getCombinationCnt()) < 0; i = i.add(BigInteger.ONE)) {
             List<List<?>> decoved = combiner.gammaDeconv(i);
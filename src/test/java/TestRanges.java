@@ -1,8 +1,11 @@
 
+import com.github.aoklyunin.jCollections.combiners.CombinationView;
 import com.github.aoklyunin.jCollections.combiners.Combiner;
 import com.github.aoklyunin.jCollections.combiners.ranges.Range;
+import com.github.aoklyunin.jCollections.combiners.ranges.RangeBuilder;
 import com.github.aoklyunin.jCollections.combiners.ranges.complex.CombinerRange;
 import com.github.aoklyunin.jCollections.combiners.ranges.complex.ListRange;
+import com.github.aoklyunin.jCollections.combiners.ranges.primitive.*;
 import com.github.aoklyunin.jCollections.combiners.ranges.vector.Vector3dRange;
 import jMath.aoklyunin.github.com.vector.Vector2i;
 import jMath.aoklyunin.github.com.vector.Vector3d;
@@ -12,6 +15,7 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 public class TestRanges {
 
@@ -83,6 +87,112 @@ public class TestRanges {
         }
     }
 
+    @Test
+    public void testLongDeconv() {
+        Combiner combiner = new Combiner(
+                Range.of(0, 100, 20),
+                Range.of(-15.0, 20.0, 5),
+                Range.of('A', 'Z', 5)
+        );
+        for (long i = 0; i < combiner.getCombinationCnt().longValue(); i++) {
+            List<Object> decoved = combiner.deconv(i);
+            assert decoved.equals(combiner.deconv(BigInteger.valueOf(i)));
+            assert combiner.longConv(decoved) == i;
+        }
+    }
+
+    @Test
+    public void testBigDeconv() {
+        List<Range> ranges = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+            ranges.add(Range.of(0, 100));
+        Combiner combiner = new Combiner(ranges);
+        assert combiner.getCombinationCnt().equals(BigInteger.valueOf(101).pow(20));
+        BigInteger step = combiner.getCombinationCnt().divide(BigInteger.valueOf(1000));
+        for (BigInteger i = BigInteger.ZERO; i.compareTo(combiner.getCombinationCnt()) < 0; i = i.add(step)) {
+            List<Object> decoved = combiner.deconv(i);
+            BigInteger conValue = combiner.conv(decoved);
+            assert conValue.equals(i);
+        }
+    }
+
+    @Test
+    public void testGetNextAsList() {
+        Combiner combiner = new Combiner(
+                Range.of(0, 100, 20),
+                Range.of('B', 'C', false),
+                Range.of(-15.0, 20.0, 5)
+        );
+        for (long i = 0; i < combiner.getCombinationCnt().longValue(); i++) {
+            List<Object> next = combiner.getNextAsList();
+            assert next.get(next.size() - 1).equals(BigInteger.valueOf(i));
+            assert next.subList(0, next.size() - 1).equals(combiner.deconv(i));
+        }
+        assert combiner.getNextAsList().isEmpty();
+    }
+
+    @Test
+    public void testStepsDeconv() {
+        Combiner combiner = new Combiner(
+                Range.of(0, 100, 20),
+                Range.of('B', 'C', false),
+                Range.of(-15.0, 20.0, 5),
+                Range.of(5L, 1005L, 15),
+                Range.of(0.5f, 1.5f, 10),
+                Range.of('A', 'Z', 5)
+        );
+        int[] steps = new int[combiner.getRanges().size()];
+        for (long i = 0; i < combiner.getCombinationCnt().longValue(); i += 7) {
+            combiner.deconvStepsInto(i, steps);
+            assert combiner.convSteps(steps) == i;
+            List<Object> decoved = combiner.deconv(i);
+            assert decoved.get(0).equals(((IntRange) combiner.getRanges().get(0)).getInt(steps[0]));
+            assert decoved.get(1).equals(((CharRange) combiner.getRanges().get(1)).getChar(steps[1]));
+            assert decoved.get(2).equals(((DoubleRange) combiner.getRanges().get(2)).getDouble(steps[2]));
+            assert decoved.get(3).equals(((LongRange) combiner.getRanges().get(3)).getLong(steps[3]));
+            assert decoved.get(4).equals(((FloatRange) combiner.getRanges().get(4)).getFloat(steps[4]));
+            assert decoved.get(5).equals(((CharRange) combiner.getRanges().get(5)).getChar(steps[5]));
+        }
+    }
+
+    @Test
+    public void testCombinationView() {
+        Combiner combiner = new Combiner(
+                new RangeBuilder("x").setMinMax(0, 100).setStepCnt(20).build(),
+                new RangeBuilder("c").setMinMax('B', 'C').enabled(false).build(),
+                new RangeBuilder("y").setMinMax(-15.0, 20.0).setStepCnt(5).build()
+        );
+        int x = combiner.getRangeHandle("x");
+        int y = combiner.getRangeHandle("y");
+        CombinationView view = new CombinationView(combiner);
+        List<Map<String, Object>> dicts = new ArrayList<>();
+        for (Map<String, Object> dict = combiner.getNextAsDict(); !dict.isEmpty(); dict = combiner.getNextAsDict())
+            dicts.add(dict);
+        int cnt = 0;
+        while (combiner.getNextInto(view)) {
+            List<Object> decoved = combiner.deconv(view.getPosition());
+            assert decoved.get(x).equals(view.getInt(x));
+            assert decoved.get(y).equals(view.getDouble(y));
+            assert dicts.get(cnt).equals(view.toMap());
+            cnt++;
+        }
+        assert cnt == combiner.getCombinationCnt().intValue();
+        // у запрещённых диапазонов значение по умолчанию между шагами и вне диапазона
+        IntRange disabledRange = new IntRange(0, 100, 5, "d", false, true);
+        DoubleRange outOfRange = new DoubleRange(0.0, 1.0, 4, "e", false, true);
+        Combiner disabledCombiner = new Combiner(disabledRange, outOfRange, Range.of(0, 10, 2));
+        disabledRange.setCurrentValue(37);
+        outOfRange.setCurrentValue(-5.0);
+        view = new CombinationView(disabledCombiner);
+        while (disabledCombiner.getNextInto(view)) {
+            List<Object> decoved = disabledCombiner.deconv(view.getPosition());
+            assert decoved.get(0).equals(view.getInt(0)) && view.getInt(0) == 37;
+            assert decoved.get(0).equals(view.getValue(0));
+            assert decoved.get(1).equals(view.getDouble(1)) && view.getDouble(1) >= 0;
+            assert decoved.get(1).equals(view.getValue(1));
+        }
+    }
+
     @Test
     public void testCombinerRange() {
         Combiner combiner = new Combiner(2);